@@ -0,0 +1,86 @@
+package document;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of an EfficientDocument over text that is not a String, with
+ * and without first copying it into one, on texts of 10 MB and more (War and
+ * Peace repeated).  Run main (or the benchmarks jar with -prof gc) to see the
+ * allocation of the copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CharSequenceBenchmark {
+
+	// The number of characters of the text to process
+	@Param({ "10000000", "40000000" })
+	public int size;
+
+	private StringBuilder builder;
+	private CharBuffer buffer;
+
+	@Setup
+	public void setUp()
+	{
+		String textfile = System.getProperty("textfile", "../data/warAndPeace.txt");
+		StringBuilder book = DocumentBenchmarking.getTextFromFile(textfile, Integer.MAX_VALUE);
+		builder = new StringBuilder(size);
+		while (builder.length() < size) {
+			builder.append(book, 0, Math.min(book.length(), size - builder.length()));
+		}
+		char[] chars = new char[size];
+		builder.getChars(0, size, chars, 0);
+		buffer = CharBuffer.wrap(chars);
+	}
+
+	/** What callers had to do before: copy the text into a String first */
+	@Benchmark
+	public double copyToString()
+	{
+		return new EfficientDocument(builder.toString()).getFleschScore();
+	}
+
+	@Benchmark
+	public double stringBuilder()
+	{
+		return new EfficientDocument(builder).getFleschScore();
+	}
+
+	@Benchmark
+	public double charBuffer()
+	{
+		return new EfficientDocument(buffer).getFleschScore();
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		Options options = new OptionsBuilder()
+				.include(CharSequenceBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
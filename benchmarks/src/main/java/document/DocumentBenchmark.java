@@ -0,0 +1,105 @@
+package document;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks for BasicDocument, EfficientDocument and the helper methods
+ * of Document, over slices of War and Peace of increasing size.
+ *
+ * Every benchmark returns its result, so the JIT cannot eliminate the work.
+ * Run main (or the benchmarks jar with -prof gc) to also get allocation rates.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DocumentBenchmark {
+
+	// The number of characters of the text to process
+	@Param({ "50000", "500000", "3000000" })
+	public int size;
+
+	private String text;
+	private BasicDocument tokenizer;  // used to reach the protected helpers of Document
+	private BasicDocument withTable;  // the same, looking syllables up in a SyllableTable
+	private String[] words;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		String textfile = System.getProperty("textfile", "../data/warAndPeace.txt");
+		text = DocumentBenchmarking.getStringFromFile(textfile, size);
+		tokenizer = new BasicDocument(text);
+		withTable = new BasicDocument(text, SyllableTable.load("../data/dict.txt"));
+		words = tokenizer.getTokens("[a-zA-Z]+").toArray(new String[0]);
+	}
+
+	@Benchmark
+	public double basicDocument()
+	{
+		return new BasicDocument(text).getFleschScore();
+	}
+
+	@Benchmark
+	public double efficientDocument()
+	{
+		return new EfficientDocument(text).getFleschScore();
+	}
+
+	@Benchmark
+	public List<String> getTokens()
+	{
+		return tokenizer.getTokens("[!?.]+|[a-zA-Z]+");
+	}
+
+	@Benchmark
+	public int countSyllables()
+	{
+		int syllables = 0;
+		for (String word : words) {
+			syllables += tokenizer.countSyllables(word);
+		}
+		return syllables;
+	}
+
+	@Benchmark
+	public int countSyllablesWithTable()
+	{
+		int syllables = 0;
+		for (String word : words) {
+			syllables += withTable.countSyllables(word);
+		}
+		return syllables;
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		Options options = new OptionsBuilder()
+				.include(DocumentBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
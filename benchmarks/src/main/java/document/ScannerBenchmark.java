@@ -0,0 +1,77 @@
+package document;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of DocumentScanner over Latin-1 bytes, classifying them 64 at a
+ * time (blocks) or one at a time (scalar), with the scan of the same text as a
+ * String for reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ScannerBenchmark {
+
+	// The number of characters of the text to process
+	@Param({ "50000", "3000000" })
+	public int size;
+
+	private String text;
+	private ByteBuffer bytes;
+
+	@Setup
+	public void setUp()
+	{
+		String textfile = System.getProperty("textfile", "../data/warAndPeace.txt");
+		text = DocumentBenchmarking.getStringFromFile(textfile, size);
+		bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	@Benchmark
+	public long blocks()
+	{
+		return new DocumentScanner().scanBytes(bytes, true).getNumSyllables();
+	}
+
+	@Benchmark
+	public long scalar()
+	{
+		return new DocumentScanner().scanBytes(bytes, false).getNumSyllables();
+	}
+
+	@Benchmark
+	public long string()
+	{
+		return new DocumentScanner().scan(text).getNumSyllables();
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		Options options = new OptionsBuilder()
+				.include(ScannerBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -3,8 +3,6 @@ package application;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.OptionalInt;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -55,6 +53,11 @@ public class AutoSpellingTextArea extends StyledTextArea<Boolean> {
 	private spelling.Dictionary dic;
 	private spelling.SpellingSuggest ss;
 
+	// tokens of the current text, shared by spell checking and the Markov
+	// generator. null until needed after each change of the text
+	private document.TokenIndex tokenIndex;
+	private document.EfficientDocument indexedDocument;
+
 	// set up reflection for spelling suggest
 	private static Method mHit;
 	private static Method mGetCharacterIndex;
@@ -122,6 +125,10 @@ public class AutoSpellingTextArea extends StyledTextArea<Boolean> {
 
 		// keep track of text changes, update spell check if needed
 		this.plainTextChanges().subscribe(change -> {
+			// the text changed, so the token index is out of date
+			tokenIndex = null;
+			indexedDocument = null;
+
 			// could make more efficient
 			if (spellingOn && needUpdate) {
 				this.setStyleSpans(0, checkSpelling());
@@ -232,31 +239,58 @@ public class AutoSpellingTextArea extends StyledTextArea<Boolean> {
 		return menuItems;
 	}
 
+	/**
+	 * Returns the token index of the current text, building it once per
+	 * version of the text.
+	 * 
+	 * @return token index of the text in the text area
+	 */
+	public document.TokenIndex getTokenIndex() {
+		if (tokenIndex == null) {
+			tokenIndex = new document.TokenIndex(getText());
+		}
+		return tokenIndex;
+	}
+
+	/**
+	 * Returns the sentence index of the current text, for scoring ranges of
+	 * the text. Recorded once per version of the text, in the same pass over
+	 * the tokens of the token index that counts the text.
+	 * 
+	 * @return sentence index of the text in the text area
+	 */
+	public document.SentenceIndex getSentenceIndex() {
+		if (indexedDocument == null) {
+			indexedDocument = new document.EfficientDocument(getTokenIndex(), true);
+		}
+		return indexedDocument.getSentenceIndex();
+	}
+
 	/**
 	 * Checks spelling of text in text area builds style spans
 	 * 
 	 * @return StyleSpans with misspelled words set to style false (!correct)
 	 */
 	public StyleSpans<Boolean> checkSpelling() {
-		String text = getText();
-		String word;
+		document.TokenIndex index = getTokenIndex();
+		CharSequence text = index.getText();
 
-		// keep track of end of matcher
+		// keep track of end of last word
 		int lastEnd = 0;
 		StyleSpansBuilder<Boolean> spansBuilder = new StyleSpansBuilder<>();
 
-		// Pattern and Matcher to get whitespace delimited words
-		Pattern pattern = Pattern.compile("[\\w'-]+", Pattern.CASE_INSENSITIVE);
-		Matcher matcher = pattern.matcher(text);
+		// words matching [\w'-]+, from the shared token index
+		document.TokenIndex.Tokens words = index.getSpellingTokens();
 
-		while (matcher.find()) {
-			word = matcher.group();
+		for (int i = 0; i < words.size(); i++) {
+			int start = words.start(i);
+			int end = words.end(i);
 
-			// HINT: may need to change if handling caps
-			boolean styleClass = dic.isWord(word);
-			spansBuilder.add(true, matcher.start() - lastEnd);
-			spansBuilder.add(styleClass, matcher.end() - matcher.start());
-			lastEnd = matcher.end();
+			// the dictionary reads the word from the text, in any case
+			boolean styleClass = dic.isWord(text, start, end);
+			spansBuilder.add(true, start - lastEnd);
+			spansBuilder.add(styleClass, end - start);
+			lastEnd = end;
 		}
 
 		// set trailing characters to true
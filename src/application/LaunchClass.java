@@ -7,6 +7,11 @@ public class LaunchClass {
 	
 	public String dictFile = "data/dict.txt";
 	
+	// the snapshot of dictFile, shared by the dictionary and the auto complete, 
+	// so a word added to one is known to the other
+	private spelling.DictionarySnapshot snapshot;
+	private String snapshotFile;
+	
 	public LaunchClass() {
 		super();
 	}
@@ -24,16 +29,21 @@ public class LaunchClass {
 		return new spelling.WPTree();
 	}
 	
+    // The dictionaries are mapped from a snapshot of dictFile, written on the first run
     public spelling.AutoComplete getAutoComplete() {
-        spelling.AutoCompleteDictionaryTrie tr = new spelling.AutoCompleteDictionaryTrie();
-        spelling.DictionaryLoader.loadDictionary(tr, dictFile);
-        return tr;
+        return getSnapshot();
     }
     
     public spelling.Dictionary getDictionary() {
-        spelling.Dictionary d = new spelling.DictionaryBST();
-        spelling.DictionaryLoader.loadDictionary(d, dictFile);
-    	return d;
+    	return getSnapshot();
+    }
+    
+    private spelling.DictionarySnapshot getSnapshot() {
+    	if (snapshot == null || !dictFile.equals(snapshotFile)) {
+    		snapshot = spelling.DictionarySnapshot.load(dictFile);
+    		snapshotFile = dictFile;
+    	}
+    	return snapshot;
     }
     
     public spelling.SpellingSuggest getSpellingSuggest(spelling.Dictionary dic) {
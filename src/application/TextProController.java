@@ -7,6 +7,7 @@ import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.IndexRange;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
@@ -35,6 +36,9 @@ public class TextProController {
 	// UI Controls
 	private AutoSpellingTextArea textBox;
 	
+	// readability counts of the text in textBox, updated on every edit
+	private document.IncrementalDocument textDocument;
+	
 	@FXML
 	private VBox leftPane;
 	
@@ -88,6 +92,14 @@ public class TextProController {
 		
 		textBox.setWrapText(true);
 		
+		// keep the readability counts up to date as the text is edited,
+		// so the Flesch index does not need to process the whole text again
+		textDocument = new document.IncrementalDocument(textBox.getText());
+		textBox.plainTextChanges().subscribe(change -> {
+			int start = change.getPosition();
+			textDocument.replace(start, start + change.getRemoved().length(), change.getInserted());
+		});
+		
 		
 		// add text area as first child of left VBox
 		ObservableList<Node> nodeList = leftPane.getChildren();
@@ -153,16 +165,21 @@ public class TextProController {
 	
 	@FXML
 	private void handleFleschIndex() {
-		String text = textBox.getText();
 		double fIndex = 0;
 		
 		// check if text input
-		if(!text.equals("")) {
+		if(textDocument.length() != 0) {
 			
-			// create Document representation of  current text
-			document.Document doc = launch.getDocument(text);
+			IndexRange selection = textBox.getSelection();
 			
-			fIndex = doc.getFleschScore();
+			if(selection.getLength() > 0) {
+				// score only the selected text, from the sentence index
+				fIndex = textBox.getSentenceIndex().range(selection.getStart(), selection.getEnd()).getFleschScore();
+			}
+			else {
+				// counts are already up to date with the current text
+				fIndex = textDocument.getFleschScore();
+			}
 			
 			//get string with two decimal places for index to
 			String fString = String.format("%.2f", fIndex);
@@ -205,12 +222,15 @@ public class TextProController {
 		// get MTG object
 		textgen.MarkovTextGenerator mtg = launch.getMTG();
 		
+		// tokens of the current text, shared with spell checking
+		document.TokenIndex index = textBox.getTokenIndex();
+		
 		Task<textgen.MarkovTextGenerator> task = new Task<textgen.MarkovTextGenerator>() {
 	        @Override
 	        public textgen.MarkovTextGenerator call() {
 	            // process long-running computation, data retrieval, etc...
 
-	            mtg.retrain(textBox.getText());
+	            mtg.retrain(index);
 	            return mtg;
 	        }
 		};
@@ -8,13 +8,29 @@ import java.util.List;
  */
 public class BasicDocument extends Document 
 {
+	private final SyllableTable syllableTable;
+	
 	/** Create a new BasicDocument object
 	 * 
 	 * @param text The full text of the Document.
 	 */
-	public BasicDocument(String text)
+	public BasicDocument(CharSequence text)
+	{
+		this(text, null);
+	}
+	
+	/** Create a new BasicDocument object that looks up the syllable counts of 
+	 * words in a table before counting them with the rules.  The table gives the 
+	 * same counts as the rules, so only the speed can differ.
+	 * 
+	 * @param text The full text of the Document.
+	 * @param syllableTable The table of syllable counts, or null to always 
+	 *   count with the rules
+	 */
+	public BasicDocument(CharSequence text, SyllableTable syllableTable)
 	{
 		super(text);
+		this.syllableTable = syllableTable;
 	}
 	
 	
@@ -77,12 +93,43 @@ public class BasicDocument extends Document
 		int nrSyllables =0;
 		List<String> tokens = getTokens("[a-zA-Z]+");
 		
+		long startTime = System.nanoTime();
 		for (String word : tokens) {
 			nrSyllables += countSyllables(word);
 		}
+		DocumentMetrics.getInstance().recordPhase(DocumentMetrics.Phase.SYLLABLE, System.nanoTime() - startTime);
         return nrSyllables;
 	}
 	
+	/** Return the number of syllables in a word, from the syllable table if the 
+	 * document has one and the word is in it, or else by the rules of 
+	 * Document.countSyllables
+	 */
+	@Override
+	protected int countSyllables(String word)
+	{
+		if (syllableTable != null) {
+			int syllables = syllableTable.lookup(word);
+			if (syllables >= 0) {
+				return syllables;
+			}
+		}
+		return super.countSyllables(word);
+	}
+	
+	/** Return the Flesch readability score of this document, which processes 
+	 * the text once for each count.  Each score is recorded in DocumentMetrics 
+	 * as a processed document, as EfficientDocument records each single pass.
+	 */
+	@Override
+	public double getFleschScore()
+	{
+		long startTime = System.nanoTime();
+		double score = super.getFleschScore();
+		DocumentMetrics.getInstance().recordDocument(getCharSequence().length(), System.nanoTime() - startTime);
+		return score;
+	}
+	
 	
 	/* The main method for testing this class. 
 	 * You are encouraged to add your own tests.  */
@@ -0,0 +1,316 @@
+package document;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A command line tool that scores every file in a directory tree.
+ *
+ * Files are read as StreamingDocuments on a fixed size pool of worker threads,
+ * and one CSV or JSON line with the words, sentences, syllables, Flesch score and
+ * processing time of each file is written as soon as that file is done, so the
+ * output is in completion order.  The directory is walked lazily and only a bounded
+ * number of files wait for a worker at any time, so memory use does not depend on
+ * the number of files.
+ *
+ * Usage: java document.BatchScorer [options] directory
+ *   -threads n     the number of worker threads (default: number of processors)
+ *   -format f      csv or json (default: csv)
+ *   -charset name  the encoding of the files (default: UTF-8)
+ *   -out file      the file to write to (default: standard output)
+ *   -cache file    a DocumentStatsCache file, so files that did not change
+ *                  since an earlier run are not processed again
+ */
+public class BatchScorer {
+
+	// The number of files that may wait for a worker, per thread
+	private static final int QUEUED_PER_THREAD = 4;
+
+	private final ExecutorService workers;
+	private final Semaphore slots;  // bounds the number of submitted but unfinished files
+	private final PrintWriter out;
+	private final boolean json;
+	private final Charset charset;
+	private final DocumentStatsCache cache;  // null to process every file
+
+	/** Create a new BatchScorer
+	 * @param threads The number of worker threads
+	 * @param out Where to write the results.  Each line is flushed when it is written.
+	 * @param json true to write JSON lines, false to write CSV
+	 * @param charset The encoding of the files to score
+	 */
+	public BatchScorer(int threads, Writer out, boolean json, Charset charset)
+	{
+		this(threads, out, json, charset, null);
+	}
+
+	/** Create a new BatchScorer that looks up the counts of each file in a cache
+	 * before processing it
+	 * @param threads The number of worker threads
+	 * @param out Where to write the results.  Each line is flushed when it is written.
+	 * @param json true to write JSON lines, false to write CSV
+	 * @param charset The encoding of the files to score
+	 * @param cache The cache of counts, or null to process every file
+	 */
+	public BatchScorer(int threads, Writer out, boolean json, Charset charset, DocumentStatsCache cache)
+	{
+		this.workers = Executors.newFixedThreadPool(threads);
+		this.slots = new Semaphore(threads * QUEUED_PER_THREAD);
+		this.out = new PrintWriter(out);
+		this.json = json;
+		this.charset = charset;
+		this.cache = cache;
+	}
+
+	/** Score every regular file under root, write one line per file and
+	 * wait for all of them to finish.  The worker threads are shut down
+	 * afterwards, so a BatchScorer can only be run once.
+	 * @param root The directory (or single file) to score
+	 * @throws IOException if the directory cannot be walked
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public void run(Path root) throws IOException, InterruptedException
+	{
+		if (!json) {
+			writeLine("path,words,sentences,syllables,flesch,millis,error");
+		}
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+				{
+					if (attrs.isRegularFile()) {
+						submit(file);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e)
+				{
+					writeLine(format(file, null, 0, e));
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+		finally {
+			workers.shutdown();
+			workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			out.flush();
+		}
+	}
+
+	/** Hand the file to a worker, waiting while too many files are queued */
+	private void submit(Path file)
+	{
+		slots.acquireUninterruptibly();
+		try {
+			workers.execute(() -> {
+				try {
+					score(file);
+				}
+				finally {
+					slots.release();
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			slots.release();
+			throw e;
+		}
+	}
+
+	/** Score one file and write its line */
+	private void score(Path file)
+	{
+		long startTime = System.nanoTime();
+		String line;
+		try {
+			TextCounts doc = read(file);
+			line = format(file, doc, System.nanoTime() - startTime, null);
+		}
+		catch (IOException | RuntimeException e) {
+			line = format(file, null, System.nanoTime() - startTime, e);
+		}
+		writeLine(line);
+	}
+
+	/** Return the counts of a file, from the cache if there is one */
+	private TextCounts read(Path file) throws IOException
+	{
+		if (cache != null) {
+			return cache.getCounts(file, charset);
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new StreamingDocument(channel, charset);
+		}
+	}
+
+	/** Write one result line and flush it, so results appear as they complete */
+	private void writeLine(String line)
+	{
+		synchronized (out) {
+			out.println(line);
+			out.flush();
+		}
+	}
+
+	/** Return the result line for a file.  doc is null if the file could not be scored. */
+	private String format(Path file, TextCounts doc, long nanos, Exception error)
+	{
+		double millis = nanos / 1000000.0;
+		String message = error == null ? null : error.toString();
+		StringBuilder sb = new StringBuilder();
+
+		if (json) {
+			sb.append("{\"path\":").append(jsonString(file.toString()));
+			if (doc != null) {
+				double flesch = doc.getFleschScore();
+				sb.append(",\"words\":").append(doc.getNumWords());
+				sb.append(",\"sentences\":").append(doc.getNumSentences());
+				sb.append(",\"syllables\":").append(doc.getNumSyllables());
+				// an empty file has no score, and JSON has no NaN
+				sb.append(",\"flesch\":").append(Double.isNaN(flesch) ? "null" : String.valueOf(flesch));
+			}
+			sb.append(",\"millis\":").append(millis);
+			if (message != null) {
+				sb.append(",\"error\":").append(jsonString(message));
+			}
+			sb.append('}');
+		}
+		else {
+			sb.append(csvString(file.toString())).append(',');
+			if (doc != null) {
+				double flesch = doc.getFleschScore();
+				sb.append(doc.getNumWords()).append(',');
+				sb.append(doc.getNumSentences()).append(',');
+				sb.append(doc.getNumSyllables()).append(',');
+				sb.append(Double.isNaN(flesch) ? "" : String.valueOf(flesch)).append(',');
+			}
+			else {
+				sb.append(",,,,");
+			}
+			sb.append(millis).append(',');
+			if (message != null) {
+				sb.append(csvString(message));
+			}
+		}
+		return sb.toString();
+	}
+
+	/** Quote s as a CSV field if it contains a separator, quote or line break */
+	private static String csvString(String s)
+	{
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+			return s;
+		}
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+
+	/** Return s as a quoted JSON string */
+	private static String jsonString(String s)
+	{
+		StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static void usage()
+	{
+		System.err.println("Usage: java document.BatchScorer [-threads n] [-format csv|json] "
+				+ "[-charset name] [-out file] [-cache file] directory");
+		System.exit(2);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean json = false;
+		Charset charset = StandardCharsets.UTF_8;
+		String outFile = null;
+		String cacheFile = null;
+		String directory = null;
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith("-") && i + 1 >= args.length) {
+				usage();
+			}
+			if (arg.equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (arg.equals("-format")) {
+				String format = args[++i];
+				if (!format.equals("csv") && !format.equals("json")) {
+					usage();
+				}
+				json = format.equals("json");
+			}
+			else if (arg.equals("-charset")) {
+				charset = Charset.forName(args[++i]);
+			}
+			else if (arg.equals("-out")) {
+				outFile = args[++i];
+			}
+			else if (arg.equals("-cache")) {
+				cacheFile = args[++i];
+			}
+			else if (directory == null && !arg.startsWith("-")) {
+				directory = arg;
+			}
+			else {
+				usage();
+			}
+		}
+		if (directory == null || threads <= 0) {
+			usage();
+		}
+
+		Writer writer = outFile == null
+				? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+				: Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8);
+		DocumentStatsCache cache = null;
+		try {
+			if (cacheFile != null) {
+				cache = new DocumentStatsCache(DocumentStatsCache.DEFAULT_MEMORY_CAPACITY, Paths.get(cacheFile));
+			}
+			new BatchScorer(threads, writer, json, charset, cache).run(Paths.get(directory));
+		}
+		finally {
+			writer.close();
+			if (cache != null) {
+				cache.close();
+				System.err.println("Cache " + cache);
+			}
+		}
+	}
+
+}
@@ -8,16 +8,20 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class Document {
 
-	private String text;
+	private CharSequence text;
 	
-	/** Create a new document from the given text.
+	/** Create a new document from the given text, which can be any CharSequence 
+	 * (a String, StringBuilder, CharBuffer, ...).  The text is not copied, so it 
+	 * must not change while the document is used.
 	 * Because this class is abstract, this is used only from subclasses.
 	 * @param text The text of the document.
 	 */
-	protected Document(String text)
+	protected Document(CharSequence text)
 	{
 		this.text = text;
 	}
@@ -31,17 +35,31 @@ public abstract class Document {
 	 */
 	protected List<String> getTokens(String pattern)
 	{
+		long startTime = System.nanoTime();
 		ArrayList<String> tokens = new ArrayList<String>();
 		Pattern tokSplitter = Pattern.compile(pattern);
-		Matcher m = tokSplitter.matcher(text);
+		Matcher m = tokSplitter.matcher(getCharSequence());
 		
 		while (m.find()) {
 			tokens.add(m.group());
 		}
 		
+		DocumentMetrics.getInstance().recordPhase(DocumentMetrics.Phase.TOKENIZE, System.nanoTime() - startTime);
 		return tokens;
 	}
 	
+	/** Returns a stream of the words and runs of sentence-ending punctuation 
+	 * of the document text, the same tokens as getTokens("[!?.]+|[a-zA-Z]+") in 
+	 * the same order.  The tokens are found as the stream is consumed, and a 
+	 * parallel stream splits the text between tokens.
+	 * @return A sequential stream of the tokens, which can be made parallel
+	 */
+	public Stream<String> tokenStream()
+	{
+		CharSequence text = getCharSequence();
+		return StreamSupport.stream(new TokenSpliterator(text, 0, text.length()), false);
+	}
+	
 	/** This is a helper function that returns the number of syllables
 	 * in a word.  You should write this and use it in your 
 	 * BasicDocument class.
@@ -63,6 +81,17 @@ public abstract class Document {
 	 *       You should consider y a vowel.
 	 */
 	protected int countSyllables(String word)
+	{
+		return countSyllablesByRule(word);
+	}
+	
+	/** Count the syllables in a word with the rules described in countSyllables.
+	 * Subclasses may override countSyllables, for example to look words up in a 
+	 * SyllableTable, but this always applies the rules.
+	 * @param word  The word to count the syllables in
+	 * @return The number of syllables in the given word
+	 */
+	static int countSyllablesByRule(String word)
 	{
 		String lword = word.toLowerCase(); // we ignore case
 		int syllables =0;
@@ -149,18 +178,30 @@ public abstract class Document {
 	/** Return the number of syllables in this document */
 	public abstract int getNumSyllables();
 	
-	/** Return the entire text of this document */
+	/** Return the entire text of this document.  If the document was not created 
+	 * from a String, this copies the text into a new String. */
 	public String getText()
 	{
-		return this.text;
+		return this.text == null ? null : this.text.toString();
+	}
+	
+	/** Return the entire text of this document without copying it.  Subclasses 
+	 * that do not keep the text they were created from return getText(). */
+	public CharSequence getCharSequence()
+	{
+		return this.text == null ? getText() : this.text;
 	}
 	
 	/** return the Flesch readability score of this document */
 	public double getFleschScore()
 	{
 	   //System.out.println("method called");
-	   double wordsDivSent = (double) getNumWords() / (double) getNumSentences();
-	   double syllDivWords = (double) getNumSyllables() / (double) getNumWords() ;
+	   // get each count once, since a subclass may process the text to find it
+	   int numWords = getNumWords();
+	   int numSentences = getNumSentences();
+	   int numSyllables = getNumSyllables();
+	   double wordsDivSent = (double) numWords / (double) numSentences;
+	   double syllDivWords = (double) numSyllables / (double) numWords ;
 	   //System.out.println(wordsDivSent);
 	   //System.out.println(syllDivWords);
 	   return (206.835 -1.015*wordsDivSent -84.6*syllDivWords);
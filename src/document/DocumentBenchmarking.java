@@ -80,7 +80,19 @@ public class DocumentBenchmarking {
 	 */
 	public static String getStringFromFile(String filename, int numChars) {
 		
-		StringBuffer s = new StringBuffer();
+		return getTextFromFile(filename, numChars).toString();
+	}
+	
+	/** Get a specified number of characters from a text file, without copying 
+	 * them into a String.  Documents can be created from the result directly.
+	 * 
+	 * @param filename The file to read from
+	 * @param numChars The number of characters to read
+	 * @return The text from the file with the appropriate number of characters
+	 */
+	public static StringBuilder getTextFromFile(String filename, int numChars) {
+		
+		StringBuilder s = new StringBuilder();
 		try {
 			FileInputStream inputFile= new FileInputStream(filename);
 			InputStreamReader inputStream = new InputStreamReader(inputFile);
@@ -103,7 +115,7 @@ public class DocumentBenchmarking {
 		}
 		
 		
-		return s.toString();
+		return s;
 	}
 	
 }
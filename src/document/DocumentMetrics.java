@@ -0,0 +1,223 @@
+package document;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters of the work done by the document package, published through JMX.
+ *
+ * All counters are LongAdders, which spread updates from different threads over
+ * separate cells instead of locking, so recording is cheap enough to leave on when
+ * many documents are scored at once.  Phases are timed once per call, never per
+ * word or character.
+ */
+public final class DocumentMetrics implements DocumentMetricsMXBean {
+
+	/** The name the metrics are published under */
+	public static final String OBJECT_NAME = "document:type=DocumentMetrics";
+
+	/** The phases of scoring a document that are timed */
+	public enum Phase {
+		/** Splitting the text with a regular expression (Document.getTokens) */
+		TOKENIZE,
+		/** Counting the syllables of already tokenized words */
+		SYLLABLE,
+		/** A single pass that tokenizes and counts syllables together (DocumentScanner) */
+		SCAN
+	}
+
+	// the upper bounds of the document size buckets, in characters
+	private static final long[] SIZE_BOUNDS = { 1000, 10000, 100000, 1000000, Long.MAX_VALUE };
+	private static final String[] SIZE_LABELS = { "<1K", "1K-10K", "10K-100K", "100K-1M", ">=1M" };
+
+	// the number of latency buckets, each twice as wide as the one before
+	private static final int LATENCY_BUCKETS = 32;
+
+	private static final DocumentMetrics INSTANCE = new DocumentMetrics();
+
+	static {
+		INSTANCE.register();
+	}
+
+	private final LongAdder documents = new LongAdder();
+	private final LongAdder characters = new LongAdder();
+	private final LongAdder processingNanos = new LongAdder();
+	private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+	private final LongAdder[][] latencies = new LongAdder[SIZE_BOUNDS.length][LATENCY_BUCKETS];
+
+	private DocumentMetrics()
+	{
+		for (int i = 0; i < phaseNanos.length; i++) {
+			phaseNanos[i] = new LongAdder();
+		}
+		for (LongAdder[] bucket : latencies) {
+			for (int i = 0; i < bucket.length; i++) {
+				bucket[i] = new LongAdder();
+			}
+		}
+	}
+
+	/** Return the metrics of the document package */
+	public static DocumentMetrics getInstance()
+	{
+		return INSTANCE;
+	}
+
+	/** Publish the metrics on the platform MBean server.  Failing to do so
+	 * (for example when it is not available) does not stop the recording. */
+	private void register()
+	{
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		}
+		catch (JMException | SecurityException e) {
+			System.err.println("Could not register " + OBJECT_NAME + ": " + e);
+		}
+	}
+
+	/** Record that a document was processed
+	 * @param numCharacters The number of characters in the document
+	 * @param nanos The time it took to process, in nanoseconds
+	 */
+	public void recordDocument(long numCharacters, long nanos)
+	{
+		documents.increment();
+		characters.add(numCharacters);
+		processingNanos.add(nanos);
+
+		int size = 0;
+		while (numCharacters >= SIZE_BOUNDS[size]) {
+			size++;
+		}
+		long micros = nanos / 1000;
+		int latency = micros <= 1 ? 0 : Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+		latencies[size][latency].increment();
+	}
+
+	/** Record a document counted in a single pass: both its SCAN phase and the
+	 * document itself
+	 * @param numCharacters The number of characters in the document
+	 * @param nanos The time the pass took, in nanoseconds
+	 */
+	static void recordScan(long numCharacters, long nanos)
+	{
+		INSTANCE.recordPhase(Phase.SCAN, nanos);
+		INSTANCE.recordDocument(numCharacters, nanos);
+	}
+
+	/** Record the time spent in a phase
+	 * @param phase The phase
+	 * @param nanos The time spent, in nanoseconds
+	 */
+	public void recordPhase(Phase phase, long nanos)
+	{
+		phaseNanos[phase.ordinal()].add(nanos);
+	}
+
+	@Override
+	public long getDocumentsProcessed()
+	{
+		return documents.sum();
+	}
+
+	@Override
+	public long getCharactersProcessed()
+	{
+		return characters.sum();
+	}
+
+	@Override
+	public double getCharactersPerSecond()
+	{
+		long nanos = processingNanos.sum();
+		return nanos == 0 ? 0 : characters.sum() * 1000000000.0 / nanos;
+	}
+
+	@Override
+	public long getTokenizeNanos()
+	{
+		return phaseNanos[Phase.TOKENIZE.ordinal()].sum();
+	}
+
+	@Override
+	public long getSyllableNanos()
+	{
+		return phaseNanos[Phase.SYLLABLE.ordinal()].sum();
+	}
+
+	@Override
+	public long getScanNanos()
+	{
+		return phaseNanos[Phase.SCAN.ordinal()].sum();
+	}
+
+	@Override
+	public Map<String, long[]> getLatencyHistogram()
+	{
+		Map<String, long[]> histogram = new LinkedHashMap<String, long[]>();
+		for (int size = 0; size < latencies.length; size++) {
+			long[] counts = new long[LATENCY_BUCKETS];
+			for (int i = 0; i < LATENCY_BUCKETS; i++) {
+				counts[i] = latencies[size][i].sum();
+			}
+			histogram.put(SIZE_LABELS[size], counts);
+		}
+		return histogram;
+	}
+
+	@Override
+	public void reset()
+	{
+		documents.reset();
+		characters.reset();
+		processingNanos.reset();
+		for (LongAdder adder : phaseNanos) {
+			adder.reset();
+		}
+		for (LongAdder[] bucket : latencies) {
+			for (LongAdder adder : bucket) {
+				adder.reset();
+			}
+		}
+	}
+
+	// Scores War and Peace a few ways and prints the metrics, read back through the MBean server
+	public static void main(String[] args) throws JMException
+	{
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		for (int size = 100; size <= text.length(); size *= 10) {
+			for (int i = 0; i < 20; i++) {
+				new EfficientDocument(text.substring(0, size)).getFleschScore();
+			}
+		}
+		new BasicDocument(text.substring(0, 100000)).getFleschScore();
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		for (String attribute : new String[] { "DocumentsProcessed", "CharactersProcessed",
+				"CharactersPerSecond", "TokenizeNanos", "SyllableNanos", "ScanNanos" }) {
+			System.out.println(attribute + ": " + server.getAttribute(name, attribute));
+		}
+		for (Map.Entry<String, long[]> entry : getInstance().getLatencyHistogram().entrySet()) {
+			StringBuilder sb = new StringBuilder(entry.getKey()).append(':');
+			long[] counts = entry.getValue();
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] != 0) {
+					sb.append(' ').append(1L << i).append("us=").append(counts[i]);
+				}
+			}
+			System.out.println(sb);
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+package document;
+
+import java.util.Map;
+
+/**
+ * The management interface of DocumentMetrics, published on the platform
+ * MBean server as "document:type=DocumentMetrics".
+ */
+public interface DocumentMetricsMXBean {
+
+	/** Return the number of documents processed */
+	long getDocumentsProcessed();
+
+	/** Return the number of characters in all processed documents */
+	long getCharactersProcessed();
+
+	/** Return the number of characters processed per second of processing time */
+	double getCharactersPerSecond();
+
+	/** Return the total time spent tokenizing with regular expressions, in nanoseconds */
+	long getTokenizeNanos();
+
+	/** Return the total time spent counting syllables of tokenized words, in nanoseconds */
+	long getSyllableNanos();
+
+	/** Return the total time spent in single pass scans, which tokenize and count
+	 * syllables at the same time, in nanoseconds */
+	long getScanNanos();
+
+	/** Return the latency histogram of processed documents.  Each key is a range of
+	 * document sizes in characters, and element i of its value is the number of
+	 * documents of that size processed in 2^i to 2^(i+1) microseconds
+	 * (element 0 also counts anything faster). */
+	Map<String, long[]> getLatencyHistogram();
+
+	/** Set all counters back to zero */
+	void reset();
+
+}
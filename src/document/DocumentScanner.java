@@ -0,0 +1,711 @@
+package document;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * A single pass, character classifying scanner that counts the words,
+ * sentences and syllables of a text without building any token strings.
+ *
+ * The scanner is a small state machine that is fed one character at a time,
+ * so the same text can be handed to it in any number of pieces (a whole String,
+ * buffers read from a stream, ...) and a token that spans two pieces is still
+ * counted once.  The counts it reports are the same as those found by tokenizing
+ * the text with the pattern "[!?.]+|[a-zA-Z]+" and using Document.countSyllables
+ * on each word:
+ *   - a word is a contiguous run of the letters a-z or A-Z
+ *   - a sentence ends at each run of the punctuation marks . ! or ?, and the
+ *     last sentence is counted even if it does not end with punctuation
+ *   - syllables are counted in place, using the rules described in
+ *     Document.countSyllables
+ * Along with these it counts the letters, the characters and the polysyllabic
+ * words (words of three or more syllables), so every readability index in
+ * ReadabilityIndex can be computed from a single scan.
+ *
+ * The counts are valid at any point during the scan, there is no need to
+ * signal the end of the text.  They are longs, so a text of many gigabytes
+ * can be counted.
+ *
+ * Latin-1 bytes (scan(ByteBuffer), scan(byte[], int, int)) are classified 64 at
+ * a time: eight bytes at once in a long, with SWAR (SIMD within a register)
+ * arithmetic, into one bit mask each for letters, vowels, 'e's and punctuation.
+ * Words, sentence ends and vowel sequences are then the 0 to 1 transitions of
+ * these masks, and only the words of a block are visited one by one, to apply
+ * the lone 'e' rule and find polysyllables.  Setting the system property
+ * document.scanner.blocks to false scans the bytes one at a time instead; both
+ * give exactly the same counts.
+ *
+ * A scanner can also pass every word to WordCollectors (such as the most frequent
+ * words or the number of distinct words) during the same pass.  A word is passed
+ * when the character after it is scanned, or by flushWord at the end of the text.
+ * In the same way it can pass every word and punctuation run, with its offsets,
+ * to a TokenCollector, which is how a SentenceIndex is built.  Bytes are scanned
+ * one at a time when there are collectors.
+ */
+public class DocumentScanner implements TextCounts {
+
+	// character classes, stored as bit flags in a table indexed by char value
+	private static final byte OTHER = 0;
+	private static final byte LETTER = 1;
+	private static final byte VOWEL = 2;
+	private static final byte PUNCT = 4;
+
+	private static final byte[] CLASSES = new byte[128];
+
+	// the number of syllables that makes a word polysyllabic
+	private static final int POLYSYLLABLE = 3;
+
+	/** The number of letters of a word that are passed to WordCollectors.  Longer
+	 * words are cut, but their hash covers all their letters. */
+	public static final int MAX_WORD_LENGTH = 64;
+
+	/** The version of the rules the counts are found with.  Change it whenever a
+	 * change to the scanner changes any count, so counts stored by an earlier
+	 * version, as in a DocumentStatsCache file, are not used. */
+	public static final int COUNTS_VERSION = 1;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	// the number of bytes classified at a time, one per bit of a long
+	private static final int BLOCK = 64;
+
+	// whether bytes are classified a block at a time
+	private static final boolean BLOCKS = !"false".equals(System.getProperty("document.scanner.blocks"));
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final long CASE_BITS = 0x2020202020202020L;
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			CLASSES[c] = LETTER;
+			CLASSES[Character.toUpperCase(c)] = LETTER;
+		}
+		for (char c : "aeiouy".toCharArray()) {
+			CLASSES[c] |= VOWEL;
+			CLASSES[Character.toUpperCase(c)] |= VOWEL;
+		}
+		CLASSES['.'] = PUNCT;
+		CLASSES['!'] = PUNCT;
+		CLASSES['?'] = PUNCT;
+	}
+
+	private long numWords;  		// words started so far
+	private long numSentenceEnds;  // runs of sentence-ending punctuation seen so far
+	private long numSyllables;  	// syllables counted so far
+	private long numLetters;  		// letters seen so far
+	private long numPolysyllables;  // words with at least three syllables seen so far
+	private long numCharacters;  	// characters seen so far
+
+	private boolean inWord;  		// the previous character was a letter
+	private boolean inPunct;  		// the previous character was sentence-ending punctuation
+	private boolean lastTokenWord;  // the last token seen was a word (not punctuation)
+	private boolean prevVowel;  	// the previous character was a vowel inside the current word
+	private boolean pendingE;  		// an 'e' that only counts if the word does not end after it
+	private int wordSyllables;  	// syllables counted in the current word
+
+	private final WordCollector[] collectors;  // null if words are not collected
+	private char[] word;  			// the lower case letters of the current word
+	private int wordLength;  		// the number of letters of the current word
+	private long wordHash;  		// the hash of the letters of the current word so far
+	private boolean wordPending;  	// the current word was not passed to the collectors yet
+
+	private final TokenCollector tokens;  // null if tokens are not collected
+	private long tokenStart;  		// the offset of the first character of the current token
+
+	/** Create a new scanner with all counts set to zero */
+	public DocumentScanner()
+	{
+		this.collectors = null;
+		this.tokens = null;
+	}
+
+	/** Create a new scanner with all counts set to zero, that passes every
+	 * word it scans to the collectors
+	 * @param collectors The collectors of the words
+	 */
+	public DocumentScanner(WordCollector... collectors)
+	{
+		this(null, collectors);
+	}
+
+	/** Create a new scanner with all counts set to zero, that passes every
+	 * token it scans to a token collector, and every word to the word collectors
+	 * @param tokens The collector of the tokens, or null
+	 * @param collectors The collectors of the words
+	 */
+	public DocumentScanner(TokenCollector tokens, WordCollector... collectors)
+	{
+		this.collectors = collectors.length == 0 ? null : collectors.clone();
+		this.word = new char[MAX_WORD_LENGTH];
+		this.tokens = tokens;
+	}
+
+	/** Scan the whole text
+	 * @param text The text to scan
+	 * @return this scanner
+	 */
+	public DocumentScanner scan(CharSequence text)
+	{
+		return scan(text, 0, text.length());
+	}
+
+	/** Scan the characters of text from start (inclusive) to end (exclusive)
+	 * @param text The text to scan
+	 * @param start The index of the first character to scan
+	 * @param end The index after the last character to scan
+	 * @return this scanner
+	 */
+	public DocumentScanner scan(CharSequence text, int start, int end)
+	{
+		for (int i = start; i < end; i++) {
+			accept(text.charAt(i));
+		}
+		return this;
+	}
+
+	/** Scan the characters of the array from start (inclusive) to end (exclusive)
+	 * @param buf The characters to scan
+	 * @param start The index of the first character to scan
+	 * @param end The index after the last character to scan
+	 * @return this scanner
+	 */
+	public DocumentScanner scan(char[] buf, int start, int end)
+	{
+		for (int i = start; i < end; i++) {
+			accept(buf[i]);
+		}
+		return this;
+	}
+
+	/** Scan the remaining bytes of the buffer as Latin-1 (ISO-8859-1) characters,
+	 * without changing its position.  This also gives the counts of ASCII and
+	 * UTF-8 text, since every byte of a multi-byte UTF-8 character is 0x80 or above.
+	 * @param buf The bytes to scan
+	 * @return this scanner
+	 */
+	public DocumentScanner scan(ByteBuffer buf)
+	{
+		return scanBytes(buf, BLOCKS);
+	}
+
+	/** Scan the bytes of the array from start (inclusive) to end (exclusive) as
+	 * Latin-1 characters, the same as scan(ByteBuffer)
+	 * @param buf The bytes to scan
+	 * @param start The index of the first byte to scan
+	 * @param end The index after the last byte to scan
+	 * @return this scanner
+	 */
+	public DocumentScanner scan(byte[] buf, int start, int end)
+	{
+		return scanBytes(ByteBuffer.wrap(buf, start, end - start), BLOCKS);
+	}
+
+	/** Scan the remaining bytes of buf, a block at a time if blocks is true */
+	DocumentScanner scanBytes(ByteBuffer buf, boolean blocks)
+	{
+		int i = buf.position();
+		int end = buf.limit();
+		if (blocks && collectors == null && tokens == null) {
+			// an 'e' left pending by the last call is settled by the next character
+			while (pendingE && i < end) {
+				accept((char) (buf.get(i++) & 0xFF));
+			}
+			ByteBuffer longs = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			// the byte after a block tells whether its last word ends with it
+			for (; i + BLOCK < end; i += BLOCK) {
+				long letters = 0;
+				long vowels = 0;
+				long es = 0;
+				long puncts = 0;
+				for (int j = 0; j < BLOCK / 8; j++) {
+					long x = longs.getLong(i + 8 * j);
+					long lower = x | CASE_BITS;
+					long ascii = ~x & HIGH_BITS;
+					long y = lower & LOW_BITS;
+					long letter = (y + ONES * (0x80 - 'a')) & ~(y + ONES * (0x7F - 'z')) & ascii;
+					long e = equalBytes(lower, 'e');
+					long vowel = equalBytes(lower, 'a') | e | equalBytes(lower, 'i')
+							| equalBytes(lower, 'o') | equalBytes(lower, 'u') | equalBytes(lower, 'y');
+					long punct = equalBytes(x, '.') | equalBytes(x, '!') | equalBytes(x, '?');
+					letters |= gather(letter) << (8 * j);
+					vowels |= gather(vowel) << (8 * j);
+					es |= gather(e) << (8 * j);
+					puncts |= gather(punct) << (8 * j);
+				}
+				scanBlock(letters, vowels, es, puncts, isLetter((char) (buf.get(i + BLOCK) & 0xFF)));
+			}
+		}
+		for (; i < end; i++) {
+			accept((char) (buf.get(i) & 0xFF));
+		}
+		return this;
+	}
+
+	/** Return a long with the high bit of each byte of x set if that byte equals b,
+	 * and all other bits clear */
+	private static long equalBytes(long x, int b)
+	{
+		long t = x ^ (ONES * b);
+		// the high bit of ((t & LOW_BITS) + LOW_BITS) | t is set for each non-zero byte of t
+		return ~(((t & LOW_BITS) + LOW_BITS) | t) & HIGH_BITS;
+	}
+
+	/** Move the high bit of byte i of m to bit i, for each of the eight bytes */
+	private static long gather(long m)
+	{
+		m >>>= 7;
+		m |= m >>> 7;
+		m |= m >>> 14;
+		m |= m >>> 28;
+		return m & 0xFF;
+	}
+
+	/** Count a block of 64 characters from its masks, bit i standing for character i
+	 * @param letters The letters a-z and A-Z
+	 * @param vowels The vowels, including y
+	 * @param es The letters e and E
+	 * @param puncts The sentence-ending punctuation marks
+	 * @param nextLetter true if the character after the block is a letter
+	 */
+	private void scanBlock(long letters, long vowels, long es, long puncts, boolean nextLetter)
+	{
+		long wordStarts = letters & ~((letters << 1) | (inWord ? 1 : 0));
+		long wordEnds = letters & ~((letters >>> 1) | (nextLetter ? 1L << 63 : 0));
+		long vowelStarts = vowels & ~((vowels << 1) | (inWord && prevVowel ? 1 : 0));
+		long punctStarts = puncts & ~((puncts << 1) | (inPunct ? 1 : 0));
+		// a vowel sequence that is just an 'e' at the end of a word, which only
+		// counts if it is the first syllable of the word
+		long loneEs = vowelStarts & es & wordEnds;
+
+		numCharacters += BLOCK;
+		numLetters += Long.bitCount(letters);
+		numWords += Long.bitCount(wordStarts);
+		numSentenceEnds += Long.bitCount(punctStarts);
+		long tokenStarts = wordStarts | punctStarts;
+		if (tokenStarts != 0) {
+			lastTokenWord = (wordStarts & Long.highestOneBit(tokenStarts)) != 0;
+		}
+
+		// visit the words of the block, starting with one carried over from the last block
+		boolean open = inWord && (letters & 1) != 0;
+		int from = 0;
+		while (true) {
+			if (!open) {
+				if (wordStarts == 0) {
+					break;
+				}
+				from = Long.numberOfTrailingZeros(wordStarts);
+				wordStarts &= wordStarts - 1;
+				wordSyllables = 0;
+			}
+			if (wordEnds == 0) {
+				// the word goes on in the next block
+				addSyllables(Long.bitCount(vowelStarts & (-1L << from)));
+				break;
+			}
+			int to = Long.numberOfTrailingZeros(wordEnds);
+			wordEnds &= wordEnds - 1;
+			int syllables = Long.bitCount(vowelStarts & (-1L << from) & (-1L >>> (63 - to)));
+			if ((loneEs & (1L << to)) != 0 && wordSyllables + syllables > 1) {
+				syllables--;
+			}
+			addSyllables(syllables);
+			open = false;
+		}
+
+		inWord = letters < 0;
+		prevVowel = vowels < 0;
+		inPunct = puncts < 0;
+		pendingE = false;
+	}
+
+	/** Count more syllables in the current word */
+	private void addSyllables(int syllables)
+	{
+		if (wordSyllables < POLYSYLLABLE && wordSyllables + syllables >= POLYSYLLABLE) {
+			numPolysyllables++;
+		}
+		wordSyllables += syllables;
+		numSyllables += syllables;
+	}
+
+	/** Feed the next character of the text to the scanner
+	 * @param c The next character
+	 */
+	public void accept(char c)
+	{
+		int cls = c < 128 ? CLASSES[c] : OTHER;
+		numCharacters++;
+
+		if ((cls & LETTER) != 0) {
+			numLetters++;
+			if (!inWord) {
+				// first letter of a new word
+				if (collectors != null || tokens != null) {
+					startWord();
+				}
+				inWord = true;
+				inPunct = false;
+				lastTokenWord = true;
+				prevVowel = false;
+				wordSyllables = 0;
+				numWords++;
+			}
+			else if (pendingE) {
+				// the word went on after the 'e', so it was not a lone 'e' at the end
+				pendingE = false;
+				countSyllable();
+			}
+
+			if ((cls & VOWEL) != 0) {
+				if (!prevVowel) {
+					// start of a contiguous sequence of vowels
+					if ((c == 'e' || c == 'E') && wordSyllables != 0) {
+						pendingE = true;
+					}
+					else {
+						countSyllable();
+					}
+				}
+				prevVowel = true;
+			}
+			else {
+				prevVowel = false;
+			}
+
+			if (collectors != null) {
+				char lower = (char) (c | 0x20);
+				wordHash = (wordHash ^ lower) * FNV_PRIME;
+				if (wordLength < MAX_WORD_LENGTH) {
+					word[wordLength] = lower;
+				}
+				wordLength++;
+			}
+		}
+		else {
+			// any pending 'e' was a lone 'e' at the end of the word
+			if (tokens != null) {
+				endToken(cls == PUNCT);
+			}
+			inWord = false;
+			pendingE = false;
+			if (wordPending) {
+				passWord();
+			}
+
+			if (cls == PUNCT) {
+				if (!inPunct) {
+					inPunct = true;
+					lastTokenWord = false;
+					numSentenceEnds++;
+				}
+			}
+			else {
+				inPunct = false;
+			}
+		}
+	}
+
+	/** Pass the current word to the collectors, and the current token to the
+	 * token collector, if they were not passed yet.  Words and tokens are passed
+	 * when the character after them is scanned, so call this at the end of the
+	 * text to pass a word or punctuation run that ends the text.  The text must
+	 * not go on after a call to this method.
+	 */
+	public void flushWord()
+	{
+		if (wordPending) {
+			passWord();
+		}
+		if (tokens != null && (inWord || inPunct)) {
+			tokens.addToken(tokenStart, numCharacters, inWord, this);
+			inWord = false;
+			inPunct = false;
+			pendingE = false;
+		}
+	}
+
+	/** Start collecting the word whose first letter was just scanned, which
+	 * ends any punctuation run before it.  Kept out of accept, so accept stays
+	 * small enough to be inlined. */
+	private void startWord()
+	{
+		if (tokens != null) {
+			long offset = numCharacters - 1;
+			if (inPunct) {
+				tokens.addToken(tokenStart, offset, false, this);
+			}
+			tokenStart = offset;
+		}
+		if (collectors != null) {
+			wordLength = 0;
+			wordHash = FNV_OFFSET;
+			wordPending = true;
+		}
+	}
+
+	/** Pass the token ended by the character that was just scanned, which is
+	 * not a letter, and note where a punctuation run starts */
+	private void endToken(boolean punct)
+	{
+		long offset = numCharacters - 1;
+		if (inWord) {
+			tokens.addToken(tokenStart, offset, true, this);
+		}
+		if (!punct && inPunct) {
+			tokens.addToken(tokenStart, offset, false, this);
+		}
+		if (punct && !inPunct) {
+			tokenStart = offset;
+		}
+	}
+
+	/** Pass the current word to the collectors */
+	private void passWord()
+	{
+		wordPending = false;
+		long hash = wordHash;
+		// mix the bits of the FNV hash, so every bit depends on every letter
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		for (WordCollector collector : collectors) {
+			collector.addWord(word, Math.min(wordLength, MAX_WORD_LENGTH), hash);
+		}
+	}
+
+	/** Return the collectors of this scanner (an empty array if there are none) */
+	WordCollector[] getCollectors()
+	{
+		return collectors == null ? new WordCollector[0] : collectors;
+	}
+
+	/** Return new, empty collectors with the same settings as the given ones */
+	static WordCollector[] newEmpty(WordCollector[] collectors)
+	{
+		WordCollector[] copies = new WordCollector[collectors.length];
+		for (int i = 0; i < collectors.length; i++) {
+			copies[i] = collectors[i].newEmpty();
+		}
+		return copies;
+	}
+
+	/** Count one more syllable in the current word */
+	private void countSyllable()
+	{
+		numSyllables++;
+		if (++wordSyllables == POLYSYLLABLE) {
+			numPolysyllables++;
+		}
+	}
+
+	/** Add the counts of another scanner that scanned the text directly following
+	 * the text scanned by this one, as if this scanner had scanned both texts.
+	 * The texts must be cut at a character that is neither a letter nor
+	 * sentence-ending punctuation (or at the start or end of the whole text), so
+	 * no word or punctuation run is split between the two scanners.
+	 * The collectors of next are merged into the collectors of this scanner,
+	 * which must have the same number of collectors, of the same kinds.
+	 * @param next The scanner of the following text
+	 * @return this scanner
+	 */
+	public DocumentScanner merge(DocumentScanner next)
+	{
+		WordCollector[] nextCollectors = next.getCollectors();
+		if (nextCollectors.length != getCollectors().length) {
+			throw new IllegalArgumentException("Cannot merge scanners with different collectors");
+		}
+		if (tokens != null || next.tokens != null) {
+			throw new IllegalArgumentException("Cannot merge scanners that collect tokens");
+		}
+		if (next.numCharacters == 0) {
+			return this;
+		}
+		// the text was cut after the last word of this scanner, so it has ended
+		flushWord();
+		for (int i = 0; i < nextCollectors.length; i++) {
+			collectors[i].merge(nextCollectors[i]);
+		}
+
+		numWords += next.numWords;
+		numSentenceEnds += next.numSentenceEnds;
+		numSyllables += next.numSyllables;
+		numLetters += next.numLetters;
+		numPolysyllables += next.numPolysyllables;
+		numCharacters += next.numCharacters;
+
+		// the last token of the combined text is the last token of next, if it has one
+		if (next.numWords > 0 || next.numSentenceEnds > 0) {
+			lastTokenWord = next.lastTokenWord;
+		}
+
+		// continue from where next stopped
+		inWord = next.inWord;
+		inPunct = next.inPunct;
+		prevVowel = next.prevVowel;
+		pendingE = next.pendingE;
+		wordSyllables = next.wordSyllables;
+		if (collectors != null) {
+			System.arraycopy(next.word, 0, word, 0, MAX_WORD_LENGTH);
+			wordLength = next.wordLength;
+			wordHash = next.wordHash;
+			wordPending = next.wordPending;
+		}
+		return this;
+	}
+
+	/** Scan only the given tokens of text, and count the characters between them
+	 * as separators without looking at them.  This gives the same counts, and
+	 * passes the same tokens at the same offsets, as scanning the whole text.
+	 * @param text The text to scan
+	 * @param tokens The readability tokens of the text, from a TokenIndex
+	 * @return this scanner
+	 */
+	DocumentScanner scan(CharSequence text, TokenIndex.Tokens tokens)
+	{
+		int end = 0;
+		for (int i = 0; i < tokens.size(); i++) {
+			skip(tokens.start(i) - end);
+			scan(text, tokens.start(i), tokens.end(i));
+			end = tokens.end(i);
+		}
+		skip(text.length() - end);
+		return this;
+	}
+
+	/** Scan count separator characters */
+	private void skip(int count)
+	{
+		if (count > 0) {
+			accept(' ');
+			numCharacters += count - 1;
+		}
+	}
+
+	/** Return true if the character is one of the letters a-z or A-Z */
+	public static boolean isLetter(char c)
+	{
+		return c < 128 && (CLASSES[c] & LETTER) != 0;
+	}
+
+	/** Return true if the character is sentence-ending punctuation (. ! or ?) */
+	public static boolean isSentenceEnd(char c)
+	{
+		return c < 128 && CLASSES[c] == PUNCT;
+	}
+
+	/** Return true if the character is neither a letter nor sentence-ending
+	 * punctuation, so the text can be cut at it without splitting a token */
+	public static boolean isSeparator(char c)
+	{
+		return c >= 128 || CLASSES[c] == OTHER;
+	}
+
+	/** Return the number of words scanned so far */
+	@Override
+	public long getNumWords()
+	{
+		return numWords;
+	}
+
+	/** Return the number of sentences scanned so far. A trailing sentence
+	 * without punctuation is counted. */
+	@Override
+	public long getNumSentences()
+	{
+		return numSentenceEnds + (lastTokenWord ? 1 : 0);
+	}
+
+	/** Return the number of letters (a-z and A-Z) scanned so far */
+	@Override
+	public long getNumLetters()
+	{
+		return numLetters;
+	}
+
+	/** Return the number of words of three or more syllables scanned so far */
+	@Override
+	public long getNumPolysyllables()
+	{
+		return numPolysyllables;
+	}
+
+	/** Return the number of characters of any kind scanned so far */
+	public long getNumCharacters()
+	{
+		return numCharacters;
+	}
+
+	/** Return the number of runs of sentence-ending punctuation scanned so far.
+	 * Unlike getNumSentences, this does not count a trailing sentence without
+	 * punctuation. */
+	long getNumSentenceEnds()
+	{
+		return numSentenceEnds;
+	}
+
+	/** Return true if the last token scanned so far was a word rather than
+	 * sentence-ending punctuation.  False if no token was scanned. */
+	boolean lastTokenIsWord()
+	{
+		return lastTokenWord;
+	}
+
+	/** Return the number of syllables scanned so far */
+	@Override
+	public long getNumSyllables()
+	{
+		return numSyllables;
+	}
+
+	/** Return true if the two scanners have the same counts */
+	private static boolean sameCounts(DocumentScanner a, DocumentScanner b)
+	{
+		return a.numWords == b.numWords && a.numSentenceEnds == b.numSentenceEnds
+				&& a.numSyllables == b.numSyllables && a.numLetters == b.numLetters
+				&& a.numPolysyllables == b.numPolysyllables && a.numCharacters == b.numCharacters
+				&& a.lastTokenWord == b.lastTokenWord;
+	}
+
+	// Checks that scanning bytes a block at a time gives the same counts as one at a time
+	public static void main(String[] args)
+	{
+		// random texts from small alphabets, so all cases of words, vowel
+		// sequences, lone e's and punctuation runs come up often
+		String[] alphabets = { "aeE e.", "abe? yE\u00e9 ", "xyzEe!.? \n", "bcdEe" };
+		Random random = new Random(42);
+		boolean passed = true;
+		for (int trial = 0; trial < 20000 && passed; trial++) {
+			String alphabet = alphabets[trial % alphabets.length];
+			byte[] bytes = new byte[random.nextInt(400)];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = (byte) alphabet.charAt(random.nextInt(alphabet.length()));
+			}
+			// split the text in two at a random place, like two buffers of a stream
+			int split = random.nextInt(bytes.length + 1);
+			DocumentScanner blocks = new DocumentScanner()
+					.scanBytes(ByteBuffer.wrap(bytes, 0, split), true)
+					.scanBytes(ByteBuffer.wrap(bytes, split, bytes.length - split), true);
+			DocumentScanner scalar = new DocumentScanner()
+					.scanBytes(ByteBuffer.wrap(bytes), false);
+			passed &= sameCounts(blocks, scalar);
+		}
+		System.out.println(passed ? "Random texts passed." : "Random texts FAILED.");
+
+		byte[] book = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE)
+				.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+		DocumentScanner blocks = new DocumentScanner().scanBytes(ByteBuffer.wrap(book), true);
+		DocumentScanner chars = new DocumentScanner();
+		for (byte b : book) {
+			chars.accept((char) (b & 0xFF));
+		}
+		System.out.println(sameCounts(blocks, chars) ? "War and Peace passed." : "War and Peace FAILED.");
+	}
+
+}
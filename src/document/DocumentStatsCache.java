@@ -0,0 +1,732 @@
+package document;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the counts of documents, keyed by a 128 bit MurmurHash3 of their
+ * content, so a text that was scored before is not processed again.  Hashing is
+ * much faster than scanning, so a hit costs a small part of processing the text.
+ *
+ * The most recently used counts are kept in memory, in a least recently used map
+ * of a fixed capacity.  If the cache has a file, every new entry is also appended
+ * to it as a fixed size record, and the records are indexed again when the cache
+ * is opened, so the counts survive restarts.  Entries evicted from memory are
+ * read back from the file when they are needed again.
+ *
+ * The file starts with a magic number, a format version and the
+ * DocumentScanner.COUNTS_VERSION the counts were found with, followed by one
+ * record per text: the two halves of the hash and the word, sentence, syllable,
+ * letter and polysyllable counts.  A file written with another format or counts
+ * version is emptied when it is opened, and a record cut short by a crash is
+ * dropped.  The file holds at most a fixed number of records: when it is full,
+ * the oldest half of the records is dropped and the rest are moved to the front.
+ *
+ * A cache can be shared by many threads.  Texts are processed outside the lock,
+ * so two threads that miss on the same text at the same time both process it.
+ */
+public class DocumentStatsCache implements Closeable {
+
+	/** The number of entries kept in memory by default */
+	public static final int DEFAULT_MEMORY_CAPACITY = 10000;
+
+	/** The number of entries kept in the file by default */
+	public static final int DEFAULT_DISK_CAPACITY = 1 << 20;
+
+	/** The version of the file format written by this class */
+	public static final int VERSION = 2;
+
+	private static final int MAGIC = 0x44535443;  // "DSTC"
+	private static final int HEADER_SIZE = 12;
+	private static final int RECORD_SIZE = 56;  // two longs of hash and five longs of counts
+
+	// the seed of the hash of a text, which is hashed as its UTF-16LE bytes
+	private static final int TEXT_SEED = 0;
+
+	private final Map<Key, long[]> memory;
+	private final FileChannel file;  // null if the cache is only in memory
+	private final int diskCapacity;  // the most records the file holds
+	private long[] diskKeys;  		// the two halves of the hash of each slot
+	private int[] diskRecords;  	// the record number + 1 of each slot, 0 for an empty slot
+	private int diskSize;  			// the number of records in the file
+
+	private final LongAdder memoryHits = new LongAdder();
+	private final LongAdder diskHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder compactions = new LongAdder();
+
+	/** Create a new cache that is only kept in memory
+	 * @param memoryCapacity The number of entries to keep in memory
+	 */
+	public DocumentStatsCache(int memoryCapacity)
+	{
+		this(checkCapacity(memoryCapacity), (FileChannel) null, 0);
+	}
+
+	/** Open a cache backed by a file that holds at most DEFAULT_DISK_CAPACITY
+	 * entries, creating the file if it does not exist.
+	 * The file must not be used by another cache at the same time.
+	 * @param memoryCapacity The number of entries to keep in memory
+	 * @param path The file the entries are kept in
+	 * @throws IOException if the file cannot be read or is not a cache file
+	 */
+	public DocumentStatsCache(int memoryCapacity, Path path) throws IOException
+	{
+		this(memoryCapacity, path, DEFAULT_DISK_CAPACITY);
+	}
+
+	/** Open a cache backed by a file, creating the file if it does not exist.
+	 * The file must not be used by another cache at the same time.
+	 * @param memoryCapacity The number of entries to keep in memory
+	 * @param path The file the entries are kept in
+	 * @param diskCapacity The number of entries to keep in the file
+	 * @throws IOException if the file cannot be read or is not a cache file
+	 */
+	public DocumentStatsCache(int memoryCapacity, Path path, int diskCapacity) throws IOException
+	{
+		this(checkCapacity(memoryCapacity), FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE), checkCapacity(diskCapacity));
+		try {
+			loadIndex(path);
+		}
+		catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	private DocumentStatsCache(int memoryCapacity, FileChannel file, int diskCapacity)
+	{
+		this.memory = new LinkedHashMap<Key, long[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest)
+			{
+				if (size() > memoryCapacity) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+		this.file = file;
+		this.diskCapacity = diskCapacity;
+		if (file != null) {
+			diskKeys = new long[256];
+			diskRecords = new int[128];
+		}
+	}
+
+	private static int checkCapacity(int capacity)
+	{
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		return capacity;
+	}
+
+	/** Return the counts of text, processing it only if they are not cached
+	 * @param text The text of the document
+	 * @return the document, with the same counts as new EfficientDocument(text)
+	 * @throws IOException if the cache file cannot be read or written
+	 */
+	public EfficientDocument getDocument(CharSequence text) throws IOException
+	{
+		Key key = new Murmur3(TEXT_SEED).update(text).finish();
+		long[] counts = lookup(key);
+		if (counts != null) {
+			return new EfficientDocument(text, Math.toIntExact(counts[0]), Math.toIntExact(counts[1]),
+					Math.toIntExact(counts[2]), counts[3], counts[4]);
+		}
+		EfficientDocument doc = new EfficientDocument(text);
+		store(key, new long[] { doc.getNumWords(), doc.getNumSentences(), doc.getNumSyllables(),
+				doc.getNumLetters(), doc.getNumPolysyllables() });
+		return doc;
+	}
+
+	/** Return the counts of a text file, processing it only if they are not cached.
+	 * The file is hashed first, so a miss reads it twice.
+	 * @param path The file
+	 * @param charset The charset the file is encoded with
+	 * @return the counts of the file, the same as a StreamingDocument over it gives
+	 * @throws IOException if the file cannot be read
+	 */
+	public TextCounts getCounts(Path path, Charset charset) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			// the same bytes decode to different text with another charset
+			Murmur3 hash = new Murmur3(charset.name().hashCode());
+			ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+			while (channel.read(buf) != -1) {
+				buf.flip();
+				hash.update(buf);
+				buf.clear();
+			}
+			Key key = hash.finish();
+
+			long[] counts = lookup(key);
+			if (counts != null) {
+				return new CachedCounts(counts);
+			}
+			channel.position(0);
+			StreamingDocument doc = new StreamingDocument(channel, charset);
+			store(key, new long[] { doc.getNumWords(), doc.getNumSentences(), doc.getNumSyllables(),
+					doc.getNumLetters(), doc.getNumPolysyllables() });
+			return doc;
+		}
+	}
+
+	/** Return the counts stored for key, or null if there are none */
+	private synchronized long[] lookup(Key key) throws IOException
+	{
+		long[] counts = memory.get(key);
+		if (counts != null) {
+			memoryHits.increment();
+			return counts;
+		}
+		if (file != null) {
+			int slot = findSlot(key);
+			if (diskRecords[slot] != 0) {
+				counts = readRecord(diskRecords[slot] - 1);
+				memory.put(key, counts);
+				diskHits.increment();
+				return counts;
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	/** Store the counts of key in memory, and in the file if they are not there yet */
+	private synchronized void store(Key key, long[] counts) throws IOException
+	{
+		memory.put(key, counts);
+		if (file != null) {
+			int slot = findSlot(key);
+			if (diskRecords[slot] == 0) {
+				if (diskSize >= diskCapacity) {
+					compact();
+				}
+				ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+				record.putLong(key.h1).putLong(key.h2);
+				for (long count : counts) {
+					record.putLong(count);
+				}
+				record.flip();
+				long position = HEADER_SIZE + (long) diskSize * RECORD_SIZE;
+				while (record.hasRemaining()) {
+					position += file.write(record, position);
+				}
+				addToIndex(key.h1, key.h2);
+			}
+		}
+	}
+
+	/** Check the header of the file (or write it to a new file) and index its records */
+	private void loadIndex(Path path) throws IOException
+	{
+		long size = file.size();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.limit((int) Math.min(size, HEADER_SIZE));
+		readFully(file, header, 0);
+		if (size > 0 && (size < 4 || header.getInt(0) != MAGIC)) {
+			throw new IOException("Not a document statistics cache: " + path);
+		}
+		if (size < HEADER_SIZE || header.getInt(4) != VERSION
+				|| header.getInt(8) != DocumentScanner.COUNTS_VERSION) {
+			// a new file, or one whose records cannot be used
+			file.truncate(0);
+			header.clear();
+			header.putInt(MAGIC).putInt(VERSION).putInt(DocumentScanner.COUNTS_VERSION).flip();
+			while (header.hasRemaining()) {
+				file.write(header, header.position());
+			}
+			return;
+		}
+
+		// a file written with a larger capacity is compacted by the next store
+		long records = (size - HEADER_SIZE) / RECORD_SIZE;
+		file.truncate(HEADER_SIZE + records * RECORD_SIZE);
+		indexRecords(records);
+	}
+
+	/** Drop the oldest half of the records of the file, moving the others to its
+	 * front, and index them again */
+	private void compact() throws IOException
+	{
+		int keep = diskCapacity / 2;
+		long end = HEADER_SIZE + (long) diskSize * RECORD_SIZE;
+		long from = end - (long) keep * RECORD_SIZE;
+		long to = HEADER_SIZE;
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 1024);
+		while (from < end) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), end - from));
+			readFully(file, buf, from);
+			from += buf.limit();
+			buf.flip();
+			while (buf.hasRemaining()) {
+				to += file.write(buf, to);
+			}
+		}
+		file.truncate(to);
+
+		Arrays.fill(diskRecords, 0);
+		diskSize = 0;
+		indexRecords(keep);
+		compactions.increment();
+	}
+
+	/** Index the first records of the file */
+	private void indexRecords(long records) throws IOException
+	{
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 1024);
+		long position = HEADER_SIZE;
+		while (diskSize < records) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), (records - diskSize) * RECORD_SIZE));
+			readFully(file, buf, position);
+			position += buf.limit();
+			for (int i = 0; i < buf.limit(); i += RECORD_SIZE) {
+				addToIndex(buf.getLong(i), buf.getLong(i + 8));
+			}
+		}
+	}
+
+	/** Return the counts in a record of the file */
+	private long[] readRecord(int record) throws IOException
+	{
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+		readFully(file, buf, HEADER_SIZE + (long) record * RECORD_SIZE);
+		long[] counts = new long[5];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buf.getLong(16 + 8 * i);
+		}
+		return counts;
+	}
+
+	/** Fill buf from the file, starting at position */
+	private static void readFully(FileChannel file, ByteBuffer buf, long position) throws IOException
+	{
+		while (buf.hasRemaining()) {
+			int n = file.read(buf, position + buf.position());
+			if (n < 0) {
+				throw new IOException("Unexpected end of document statistics cache");
+			}
+		}
+	}
+
+	/** Return the slot of the index holding key, or the empty slot where it belongs */
+	private int findSlot(Key key)
+	{
+		int mask = diskRecords.length - 1;
+		int slot = (int) (key.h1 ^ (key.h1 >>> 32)) & mask;
+		while (diskRecords[slot] != 0
+				&& (diskKeys[2 * slot] != key.h1 || diskKeys[2 * slot + 1] != key.h2)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/** Add the next record of the file to the index, keeping it at most half full */
+	private void addToIndex(long h1, long h2)
+	{
+		if ((diskSize + 1) * 2 > diskRecords.length) {
+			long[] oldKeys = diskKeys;
+			int[] oldRecords = diskRecords;
+			diskKeys = new long[oldKeys.length * 2];
+			diskRecords = new int[oldRecords.length * 2];
+			for (int i = 0; i < oldRecords.length; i++) {
+				if (oldRecords[i] != 0) {
+					putSlot(oldKeys[2 * i], oldKeys[2 * i + 1], oldRecords[i]);
+				}
+			}
+		}
+		diskSize++;
+		putSlot(h1, h2, diskSize);
+	}
+
+	private void putSlot(long h1, long h2, int value)
+	{
+		int slot = findSlot(new Key(h1, h2));
+		diskKeys[2 * slot] = h1;
+		diskKeys[2 * slot + 1] = h2;
+		diskRecords[slot] = value;
+	}
+
+	/** Return the number of lookups answered from memory */
+	public long getMemoryHits()
+	{
+		return memoryHits.sum();
+	}
+
+	/** Return the number of lookups answered from the file */
+	public long getDiskHits()
+	{
+		return diskHits.sum();
+	}
+
+	/** Return the number of lookups that had to process the text */
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/** Return the number of entries evicted from memory */
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	/** Return the number of times the oldest entries were dropped from the file */
+	public long getCompactions()
+	{
+		return compactions.sum();
+	}
+
+	/** Return the number of entries in memory */
+	public synchronized int getMemorySize()
+	{
+		return memory.size();
+	}
+
+	/** Return the number of entries in the file, or 0 if there is no file */
+	public synchronized int getDiskSize()
+	{
+		return diskSize;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "memory hits: " + getMemoryHits() + ", disk hits: " + getDiskHits()
+				+ ", misses: " + getMisses() + ", evictions: " + getEvictions();
+	}
+
+	/** Write everything to the file and close it */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (file != null && file.isOpen()) {
+			file.force(false);
+			file.close();
+		}
+	}
+
+	/** The hash of the content of a document */
+	private static final class Key {
+		final long h1;
+		final long h2;
+
+		Key(long h1, long h2)
+		{
+			this.h1 = h1;
+			this.h2 = h2;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof Key && ((Key) o).h1 == h1 && ((Key) o).h2 == h2;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (int) (h1 ^ (h1 >>> 32));
+		}
+	}
+
+	/** The cached counts of a file, which does not keep its text */
+	private static class CachedCounts implements TextCounts {
+		private final long[] counts;
+
+		CachedCounts(long[] counts)
+		{
+			this.counts = counts;
+		}
+
+		@Override
+		public long getNumWords()
+		{
+			return counts[0];
+		}
+
+		@Override
+		public long getNumSentences()
+		{
+			return counts[1];
+		}
+
+		@Override
+		public long getNumSyllables()
+		{
+			return counts[2];
+		}
+
+		@Override
+		public long getNumLetters()
+		{
+			return counts[3];
+		}
+
+		@Override
+		public long getNumPolysyllables()
+		{
+			return counts[4];
+		}
+	}
+
+	/** MurmurHash3 x64 128, fed with bytes in any number of pieces, or with the
+	 * chars of a text as their UTF-16LE bytes without encoding them */
+	static final class Murmur3 {
+		private static final long C1 = 0x87c37b91114253d5L;
+		private static final long C2 = 0x4cf5ad432745937fL;
+
+		private long h1;
+		private long h2;
+		private long length;
+		private final ByteBuffer tail = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+
+		Murmur3(int seed)
+		{
+			h1 = h2 = seed & 0xFFFFFFFFL;
+		}
+
+		/** Hash the remaining bytes of buf */
+		Murmur3 update(ByteBuffer buf)
+		{
+			ByteOrder order = buf.order();
+			buf.order(ByteOrder.LITTLE_ENDIAN);
+			length += buf.remaining();
+			if (tail.position() > 0) {
+				while (tail.hasRemaining() && buf.hasRemaining()) {
+					tail.put(buf.get());
+				}
+				if (tail.hasRemaining()) {
+					buf.order(order);
+					return this;
+				}
+				block(tail.getLong(0), tail.getLong(8));
+				tail.clear();
+			}
+			while (buf.remaining() >= 16) {
+				block(buf.getLong(), buf.getLong());
+			}
+			tail.put(buf);
+			buf.order(order);
+			return this;
+		}
+
+		/** Hash the chars of text as UTF-16LE bytes */
+		Murmur3 update(CharSequence text)
+		{
+			int n = text.length();
+			int i = 0;
+			length += 2L * n;
+			if (tail.position() == 0) {
+				for (; i + 8 <= n; i += 8) {
+					block(chars(text, i), chars(text, i + 4));
+				}
+			}
+			for (; i < n; i++) {
+				tail.putChar(text.charAt(i));
+				if (!tail.hasRemaining()) {
+					block(tail.getLong(0), tail.getLong(8));
+					tail.clear();
+				}
+			}
+			return this;
+		}
+
+		/** Return four chars as a little endian long */
+		private static long chars(CharSequence text, int i)
+		{
+			return text.charAt(i) | (long) text.charAt(i + 1) << 16
+					| (long) text.charAt(i + 2) << 32 | (long) text.charAt(i + 3) << 48;
+		}
+
+		private void block(long k1, long k2)
+		{
+			h1 ^= mixK1(k1);
+			h1 = Long.rotateLeft(h1, 27) + h2;
+			h1 = h1 * 5 + 0x52dce729;
+			h2 ^= mixK2(k2);
+			h2 = Long.rotateLeft(h2, 31) + h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		}
+
+		private static long mixK1(long k1)
+		{
+			return Long.rotateLeft(k1 * C1, 31) * C2;
+		}
+
+		private static long mixK2(long k2)
+		{
+			return Long.rotateLeft(k2 * C2, 33) * C1;
+		}
+
+		private static long fmix(long k)
+		{
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			return k ^ (k >>> 33);
+		}
+
+		/** Return the hash of everything passed to update */
+		Key finish()
+		{
+			int remaining = tail.position();
+			if (remaining > 0) {
+				long k1 = 0;
+				long k2 = 0;
+				for (int i = remaining - 1; i >= 8; i--) {
+					k2 ^= (tail.get(i) & 0xFFL) << ((i - 8) * 8);
+				}
+				for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+					k1 ^= (tail.get(i) & 0xFFL) << (i * 8);
+				}
+				h1 ^= mixK1(k1);
+				h2 ^= mixK2(k2);
+			}
+			h1 ^= length;
+			h2 ^= length;
+			h1 += h2;
+			h2 += h1;
+			h1 = fmix(h1);
+			h2 = fmix(h2);
+			h1 += h2;
+			h2 += h1;
+			return new Key(h1, h2);
+		}
+	}
+
+	/** Return true if doc has the same counts as an EfficientDocument over text */
+	private static boolean matches(Document doc, String text)
+	{
+		EfficientDocument expected = new EfficientDocument(text);
+		return doc.getNumWords() == expected.getNumWords()
+				&& doc.getNumSentences() == expected.getNumSentences()
+				&& doc.getNumSyllables() == expected.getNumSyllables();
+	}
+
+	// Can be used for testing
+	public static void main(String[] args) throws IOException
+	{
+		final double CONVERSION_FACTOR = 1000000000.0;
+
+		// a published MurmurHash3 x64 128 value, and hashing in pieces
+		Key hello = new Murmur3(0).update(ByteBuffer.wrap("hello".getBytes("UTF-8"))).finish();
+		boolean passed = hello.h1 == 0xcbd8a7b341bd9b02L && hello.h2 == 0x5b1e906a48ae1d19L;
+		String text = "This is a test.  How many???  Senteeeeeeeeeences are here... there should be 5!  Right?";
+		for (int length = 0; length <= text.length(); length++) {
+			String prefix = text.substring(0, length);
+			Key chars = new Murmur3(0).update(prefix).finish();
+			ByteBuffer bytes = ByteBuffer.wrap(prefix.getBytes("UTF-16LE"));
+			Key whole = new Murmur3(0).update(bytes.duplicate()).finish();
+			Murmur3 pieces = new Murmur3(0);
+			for (int i = 0; i < bytes.capacity(); i += 3) {
+				bytes.limit(Math.min(i + 3, bytes.capacity())).position(i);
+				pieces.update(bytes);
+			}
+			passed &= chars.equals(whole) && whole.equals(pieces.finish());
+		}
+		System.out.println(passed ? "Hash passed." : "Hash FAILED.");
+
+		// a memory cache with room for two texts
+		String[] texts = {
+			text,
+			"",
+			"sentence, with, lots, of, commas.!  (And some poaren)).  The output is: 7.5.",
+			"Segue",
+		};
+		DocumentStatsCache cache = new DocumentStatsCache(2);
+		passed = true;
+		for (int round = 0; round < 2; round++) {
+			for (String t : texts) {
+				passed &= matches(cache.getDocument(t), t);
+			}
+		}
+		passed &= matches(cache.getDocument("Segue"), "Segue");
+		System.out.println((passed ? "Memory passed: " : "Memory FAILED: ") + cache);
+
+		// a file cache, opened again with everything evicted from memory
+		String book = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		String[] chapters = new String[100];
+		for (int i = 0; i < chapters.length; i++) {
+			chapters[i] = book.substring(i * book.length() / chapters.length,
+					(i + 1) * book.length() / chapters.length);
+		}
+		Path path = java.nio.file.Files.createTempFile("documentStats", ".cache");
+		try {
+			passed = true;
+			long startTime = System.nanoTime();
+			try (DocumentStatsCache fileCache = new DocumentStatsCache(10, path)) {
+				for (String chapter : chapters) {
+					fileCache.getDocument(chapter);
+				}
+				System.out.println("First run:  " + (System.nanoTime() - startTime) / CONVERSION_FACTOR
+						+ " s, " + fileCache);
+			}
+			startTime = System.nanoTime();
+			try (DocumentStatsCache fileCache = new DocumentStatsCache(10, path)) {
+				for (String chapter : chapters) {
+					passed &= fileCache.getDocument(chapter).getNumWords() >= 0;
+				}
+				System.out.println("Second run: " + (System.nanoTime() - startTime) / CONVERSION_FACTOR
+						+ " s, " + fileCache);
+				passed &= fileCache.getDiskHits() == chapters.length && fileCache.getDiskSize() == chapters.length;
+				for (String chapter : chapters) {
+					passed &= matches(fileCache.getDocument(chapter), chapter);
+				}
+			}
+			passed &= java.nio.file.Files.size(path) == HEADER_SIZE + chapters.length * RECORD_SIZE;
+			System.out.println(passed ? "File passed." : "File FAILED.");
+
+			// a file with room for 40 texts, which drops the oldest ones when it is full
+			java.nio.file.Files.delete(path);
+			passed = true;
+			try (DocumentStatsCache fileCache = new DocumentStatsCache(10, path, 40)) {
+				for (String chapter : chapters) {
+					fileCache.getDocument(chapter);
+				}
+				passed &= fileCache.getCompactions() == 3 && fileCache.getDiskSize() == 40;
+			}
+			try (DocumentStatsCache fileCache = new DocumentStatsCache(10, path, 40)) {
+				for (int i = chapters.length - 40; i < chapters.length; i++) {
+					passed &= matches(fileCache.getDocument(chapters[i]), chapters[i]);
+				}
+				passed &= fileCache.getDiskHits() == 40;
+			}
+			passed &= java.nio.file.Files.size(path) == HEADER_SIZE + 40 * RECORD_SIZE;
+			System.out.println(passed ? "Compaction passed." : "Compaction FAILED.");
+
+			// counts found with another version of the scanner are not used
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(4).putInt(0, DocumentScanner.COUNTS_VERSION + 1), 8);
+			}
+			try (DocumentStatsCache fileCache = new DocumentStatsCache(10, path)) {
+				passed = fileCache.getDiskSize() == 0;
+				passed &= matches(fileCache.getDocument(chapters[0]), chapters[0]) && fileCache.getMisses() == 1;
+			}
+			passed &= java.nio.file.Files.size(path) == HEADER_SIZE + RECORD_SIZE;
+			System.out.println(passed ? "Counts version passed." : "Counts version FAILED.");
+		}
+		finally {
+			java.nio.file.Files.delete(path);
+		}
+	}
+
+}
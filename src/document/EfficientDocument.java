@@ -1,7 +1,5 @@
 package document;
 
-import java.util.List;
-
 /** 
  * A class that represents a text document
  * It does one pass through the document to count the number of syllables, words, 
@@ -14,27 +12,89 @@ public class EfficientDocument extends Document {
 	private int numWords;  // The number of words in the document
 	private int numSentences;  // The number of sentences in the document
 	private int numSyllables;  // The number of syllables in the document
+	private long numLetters;  // The number of letters in the words of the document
+	private long numPolysyllables;  // The number of words with three or more syllables
+	private SentenceIndex sentenceIndex;  // null unless the sentences were indexed
+	
+	/** Create a new EfficientDocument over any CharSequence, without copying 
+	 * it into a String.  The text must not change while the document is used.
+	 * 
+	 * @param text The text of the document
+	 */
+	public EfficientDocument(CharSequence text)
+	{
+		super(text);
+		processText(new DocumentScanner());
+	}
+	
+	/** Create a new EfficientDocument that also passes every word of the text 
+	 * to the given collectors, in the same pass as the counting.
+	 * 
+	 * @param text The text of the document
+	 * @param collectors The collectors of the words, e.g. a SpaceSavingSketch 
+	 *   for the most frequent words and a HyperLogLog for the vocabulary size
+	 */
+	public EfficientDocument(CharSequence text, WordCollector... collectors)
+	{
+		super(text);
+		processText(new DocumentScanner(collectors));
+	}
 	
-	public EfficientDocument(String text)
+	/** Create a new EfficientDocument that can also score any range of its 
+	 * text, with a sentence index built in the same pass as the counting.
+	 * 
+	 * @param text The text of the document
+	 * @param indexSentences true to build the index returned by getSentenceIndex
+	 */
+	public EfficientDocument(CharSequence text, boolean indexSentences)
 	{
 		super(text);
-		processText();
+		SentenceIndex.Collector tokens = indexSentences ? new SentenceIndex.Collector() : null;
+		processText(new DocumentScanner(tokens));
+		if (indexSentences) {
+			sentenceIndex = new SentenceIndex(text, tokens);
+		}
 	}
 	
+	/** Create a new EfficientDocument from a token index of its text, 
+	 * only visiting the characters of the indexed readability tokens.
+	 * 
+	 * @param index The token index of the text of the document
+	 */
+	public EfficientDocument(TokenIndex index)
+	{
+		this(index, false);
+	}
 	
-	/** 
-	 * Take a string that either contains only alphabetic characters,
-	 * or only sentence-ending punctuation.  Return true if the string
-	 * contains only alphabetic characters, and false if it contains
-	 * end of sentence punctuation.  
+	/** Create a new EfficientDocument from a token index of its text, 
+	 * only visiting the characters of the indexed readability tokens, and 
+	 * optionally building a sentence index in the same pass.
 	 * 
-	 * @param tok The string to check
-	 * @return true if token is a word, false if it is punctuation. 
+	 * @param index The token index of the text of the document
+	 * @param indexSentences true to build the index returned by getSentenceIndex
+	 */
+	public EfficientDocument(TokenIndex index, boolean indexSentences)
+	{
+		super(index.getText());
+		SentenceIndex.Collector tokens = indexSentences ? new SentenceIndex.Collector() : null;
+		processTokens(index.getReadabilityTokens(), new DocumentScanner(tokens));
+		if (indexSentences) {
+			sentenceIndex = new SentenceIndex(index.getText(), tokens);
+		}
+	}
+	
+	/** Create a new EfficientDocument from counts of its text that are already 
+	 * known, without processing the text.  Used by DocumentStatsCache.
 	 */
-	private boolean isWord(String tok)
+	EfficientDocument(CharSequence text, int numWords, int numSentences, int numSyllables, 
+			long numLetters, long numPolysyllables)
 	{
-	    // Note: This is a fast way of checking whether a string is a word
-		return !(tok.indexOf("!") >=0 || tok.indexOf(".") >=0 || tok.indexOf("?")>=0);
+		super(text);
+		this.numWords = numWords;
+		this.numSentences = numSentences;
+		this.numSyllables = numSyllables;
+		this.numLetters = numLetters;
+		this.numPolysyllables = numPolysyllables;
 	}
 	
 	
@@ -42,29 +102,44 @@ public class EfficientDocument extends Document {
      * and sentences, and set the member variables appropriately.
      * Words, sentences and syllables are defined as described below. 
      */
-	private void processText()
+	private void processText(DocumentScanner scanner)
 	{
-		// Call getTokens on the text to preserve separate strings that are 
-		// either words or sentence-ending punctuation.  Ignore everything
-		// That is not a word or a sentence-ending punctuation.
-
-		List<String> tokens = getTokens("[!?.]+|[a-zA-Z]+");
-		int nrOfTokens = tokens.size();
-		int count =0;
-		for (String token : tokens) {
-			count++;
-			if(isWord(token)) {
-				numWords++;
-				numSyllables+= countSyllables(token);
-				
-				if(count == nrOfTokens)
-					numSentences++;
-			}
-			else {
-				numSentences++;
-			}
-		}
-
+		// Classify the characters of the text one at a time instead of 
+		// tokenizing it, so no token strings are created.  Everything that 
+		// is not a letter or sentence-ending punctuation is ignored.
+		long startTime = System.nanoTime();
+		scanner.scan(getCharSequence());
+		scanner.flushWord();
+		DocumentMetrics.recordScan(scanner.getNumCharacters(), System.nanoTime() - startTime);
+		
+		setCounts(scanner);
+	}
+	
+	/** Counts the words, syllables and sentences from the indexed tokens of 
+	 * the text, giving the same counts as processText.
+	 */
+	private void processTokens(TokenIndex.Tokens tokens, DocumentScanner scanner)
+	{
+		long startTime = System.nanoTime();
+		CharSequence text = getCharSequence();
+		scanner.scan(text, tokens);
+		scanner.flushWord();
+		DocumentMetrics.recordScan(text.length(), System.nanoTime() - startTime);
+		
+		setCounts(scanner);
+	}
+	
+	/** Sets the member variables from the counts of a scanner of the whole text.  
+	 * The text is held in memory, so it has fewer than 2^31 characters, and the 
+	 * word, sentence and syllable counts of Document fit in an int.
+	 */
+	private void setCounts(DocumentScanner scanner)
+	{
+		numWords = Math.toIntExact(scanner.getNumWords());
+		numSentences = Math.toIntExact(scanner.getNumSentences());
+		numSyllables = Math.toIntExact(scanner.getNumSyllables());
+		numLetters = scanner.getNumLetters();
+		numPolysyllables = scanner.getNumPolysyllables();
 	}
 
 	
@@ -126,6 +201,54 @@ public class EfficientDocument extends Document {
         return numSyllables;
 	}
 	
+	/**
+	 * Get the number of letters (a-z or A-Z) in the words of the document.
+	 * It returns information already stored in the EfficientDocument object.
+	 * 
+	 * @return The number of letters in the document.
+	 */
+	public long getNumLetters() {
+		return numLetters;
+	}
+	
+	/**
+	 * Get the number of polysyllabic words in the document, i.e. words 
+	 * with three or more syllables.
+	 * It returns information already stored in the EfficientDocument object.
+	 * 
+	 * @return The number of polysyllabic words in the document.
+	 */
+	public long getNumPolysyllables() {
+		return numPolysyllables;
+	}
+	
+	/**
+	 * Get a readability index of the document.  All indexes are computed from 
+	 * the counts collected in the single pass through the text, so this method 
+	 * does NOT process the text again.
+	 * 
+	 * @param index The readability index to compute
+	 * @return The value of the index for this document.
+	 */
+	public double getScore(ReadabilityIndex index) {
+		return index.score(numWords, numSentences, numSyllables, numLetters, numPolysyllables);
+	}
+	
+	/**
+	 * Get an index of the sentences of the document, which gives the counts 
+	 * and Flesch score of any range of the text in O(log n) time.  The index 
+	 * was built in the same pass through the text as the counts.
+	 * 
+	 * @return The sentence index of the document.
+	 * @throws IllegalStateException if the document was not created with indexSentences
+	 */
+	public SentenceIndex getSentenceIndex() {
+		if (sentenceIndex == null) {
+			throw new IllegalStateException("The sentences of this document were not indexed");
+		}
+		return sentenceIndex;
+	}
+	
 	// Can be used for testing
 	public static void main(String[] args)
 	{
@@ -146,6 +269,14 @@ public class EfficientDocument extends Document {
 		testCase(new EfficientDocument("Lorem ipsum dolor sit amet, qui ex choro quodsi moderatius, nam dolores explicari forensibus ad."),
 		         32, 15, 1);
 		
+		EfficientDocument doc = new EfficientDocument("Here is a series of test sentences. Your program should "
+				+ "find 3 sentences, 33 words, and 49 syllables.");
+		System.out.println("Letters: " + doc.getNumLetters() + ", expected 75");
+		System.out.println("Polysyllables: " + doc.getNumPolysyllables() + ", expected 3");
+		for (ReadabilityIndex index : ReadabilityIndex.values()) {
+			System.out.println(index + ": " + doc.getScore(index));
+		}
+		
 	}
 	
 
@@ -0,0 +1,503 @@
+package document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An editable text document that keeps its word, sentence and syllable counts
+ * up to date as the text is edited, so the Flesch score can be read at any time
+ * without processing the whole text again.
+ *
+ * The text is stored as a sequence of segments of at most a few thousand characters.
+ * Every segment except the last ends with a character that is neither a letter
+ * nor sentence-ending punctuation, so no word or punctuation run spans two
+ * segments and the counts of the document are the sums of the counts of its
+ * segments.  An edit only rescans the segments it touches.
+ *
+ * The segments are the nodes of a treap (a binary search tree ordered by position
+ * and balanced by random priorities), and every node holds the sums of the counts
+ * of its subtree.  Finding the segment at a position, and cutting out or putting
+ * in segments when an edit splits or joins them, walk one path of the tree, so an
+ * edit takes O(log n) time in the number of segments, apart from rescanning the
+ * segments it touches.
+ */
+public class IncrementalDocument extends Document {
+
+	/** Segments longer than this are split at a separator character */
+	static final int MAX_SEGMENT_LENGTH = 4096;
+
+	/** Segments shorter than this are joined with the following segment when edited */
+	static final int MIN_SEGMENT_LENGTH = MAX_SEGMENT_LENGTH / 4;
+
+	/** A piece of the text together with its counts, and the node of the treap
+	 * that holds it, with the sums of the counts of its subtree */
+	private static class Segment {
+		private final StringBuilder text;
+		private final int numWords;
+		private final int numSentenceEnds;
+		private final int numSyllables;
+		private final boolean hasTokens;
+		private final boolean lastTokenWord;
+
+		private final int priority;  	// higher than the priorities of the subtree
+		private Segment left;
+		private Segment right;
+
+		// the sums over the subtree, and its last token
+		private int size;  				// the number of segments
+		private int length;
+		private int words;
+		private int sentenceEnds;
+		private int syllables;
+		private boolean endsWithWord;  	// the last token of the subtree is a word
+
+		Segment(StringBuilder text)
+		{
+			this.text = text;
+			DocumentScanner scanner = new DocumentScanner().scan(text);
+			numWords = Math.toIntExact(scanner.getNumWords());
+			numSentenceEnds = Math.toIntExact(scanner.getNumSentenceEnds());
+			numSyllables = Math.toIntExact(scanner.getNumSyllables());
+			hasTokens = numWords > 0 || numSentenceEnds > 0;
+			lastTokenWord = scanner.lastTokenIsWord();
+			priority = ThreadLocalRandom.current().nextInt();
+			update();
+		}
+
+		/** Set the sums of the subtree from the segment and its children */
+		void update()
+		{
+			size = 1;
+			length = text.length();
+			words = numWords;
+			sentenceEnds = numSentenceEnds;
+			syllables = numSyllables;
+			boolean tokens = hasTokens;
+			endsWithWord = lastTokenWord;
+			if (left != null) {
+				size += left.size;
+				length += left.length;
+				words += left.words;
+				sentenceEnds += left.sentenceEnds;
+				syllables += left.syllables;
+				if (!tokens) {
+					endsWithWord = left.endsWithWord;
+					tokens = left.words > 0 || left.sentenceEnds > 0;
+				}
+			}
+			if (right != null) {
+				size += right.size;
+				length += right.length;
+				words += right.words;
+				sentenceEnds += right.sentenceEnds;
+				syllables += right.syllables;
+				if (right.words > 0 || right.sentenceEnds > 0) {
+					endsWithWord = right.endsWithWord;
+				}
+			}
+		}
+	}
+
+	private Segment root;  // never null: an empty document has one empty segment
+
+	/** Create a new IncrementalDocument
+	 * @param text The initial text of the Document.
+	 */
+	public IncrementalDocument(String text)
+	{
+		super(null);
+		root = join(null, split(new StringBuilder(text)));
+		if (root == null) {
+			root = new Segment(new StringBuilder());
+		}
+	}
+
+	/** Insert text at the given position
+	 * @param position The index in the document to insert at
+	 * @param inserted The text to insert
+	 */
+	public void insert(int position, String inserted)
+	{
+		replace(position, position, inserted);
+	}
+
+	/** Delete the characters from start (inclusive) to end (exclusive)
+	 * @param start The index of the first character to delete
+	 * @param end The index after the last character to delete
+	 */
+	public void delete(int start, int end)
+	{
+		replace(start, end, "");
+	}
+
+	/** Replace the characters from start (inclusive) to end (exclusive) with
+	 * the given text, and update the counts of the document.  Only the segments
+	 * containing the replaced range are scanned again.
+	 * @param start The index of the first character to replace
+	 * @param end The index after the last character to replace
+	 * @param inserted The text to put in place of the replaced characters
+	 */
+	public void replace(int start, int end, String inserted)
+	{
+		if (start < 0 || end < start || end > root.length) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end
+					+ ") out of bounds for length " + root.length);
+		}
+		if (start == end && inserted.isEmpty()) {
+			return;
+		}
+
+		int first = segmentAt(start);
+		int last = end > start ? segmentAt(end - 1) : first;
+		int firstStart = segmentStart(first);
+		int lastStart = segmentStart(last);
+
+		// cut the affected segments out of the tree
+		Segment[] before = splitAt(root, first);
+		Segment[] affected = splitAt(before[1], last - first + 1);
+		Segment rest = affected[1];
+		Segment firstSegment = segmentAt(affected[0], 0);
+		Segment lastSegment = segmentAt(affected[0], last - first);
+
+		// the new text of the affected segments
+		StringBuilder text = new StringBuilder();
+		text.append(firstSegment.text, 0, start - firstStart);
+		text.append(inserted);
+		text.append(lastSegment.text, end - lastStart, lastSegment.text.length());
+
+		// the new text must end with a separator, unless it is the end of the document,
+		// and short segments are joined with the next one to keep the tree compact
+		while (rest != null && (!endsWithSeparator(text) || text.length() < MIN_SEGMENT_LENGTH)) {
+			Segment[] next = splitAt(rest, 1);
+			text.append(next[0].text);
+			rest = next[1];
+		}
+
+		root = join(join(before[0], split(text)), rest);
+		if (root == null) {
+			root = new Segment(new StringBuilder());
+		}
+	}
+
+	/** Return the number of characters in the document */
+	public int length()
+	{
+		return root.length;
+	}
+
+	/** Return the entire text of this document.  The text is rebuilt from
+	 * its segments, so this takes time proportional to its length. */
+	@Override
+	public String getText()
+	{
+		StringBuilder sb = new StringBuilder(root.length);
+		appendText(root, sb);
+		return sb.toString();
+	}
+
+	/** Append the text of the segments of a subtree, in order */
+	private static void appendText(Segment t, StringBuilder sb)
+	{
+		for (; t != null; t = t.right) {
+			appendText(t.left, sb);
+			sb.append(t.text);
+		}
+	}
+
+	/** Return true if text is empty or its last character is a separator */
+	private static boolean endsWithSeparator(StringBuilder text)
+	{
+		return text.length() == 0 || DocumentScanner.isSeparator(text.charAt(text.length() - 1));
+	}
+
+	/** Split text into segments of at most MAX_SEGMENT_LENGTH characters, each
+	 * ending with a separator except the last.  A run of more than
+	 * MAX_SEGMENT_LENGTH characters without a separator is kept in one segment.
+	 * An empty text gives no segments.
+	 */
+	private static List<Segment> split(StringBuilder text)
+	{
+		List<Segment> pieces = new ArrayList<Segment>();
+		if (text.length() <= MAX_SEGMENT_LENGTH) {
+			if (text.length() > 0) {
+				pieces.add(new Segment(text));
+			}
+			return pieces;
+		}
+
+		int start = 0;
+		while (text.length() - start > MAX_SEGMENT_LENGTH) {
+			// cut after the last separator that keeps the piece short enough
+			int cut = start + MAX_SEGMENT_LENGTH;
+			while (cut > start && !DocumentScanner.isSeparator(text.charAt(cut - 1))) {
+				cut--;
+			}
+			if (cut == start) {
+				// no separator, so cut after the first separator further on
+				cut = start + MAX_SEGMENT_LENGTH;
+				while (cut < text.length() && !DocumentScanner.isSeparator(text.charAt(cut - 1))) {
+					cut++;
+				}
+			}
+			pieces.add(new Segment(new StringBuilder(text.subSequence(start, cut))));
+			start = cut;
+		}
+		if (start < text.length()) {
+			pieces.add(new Segment(new StringBuilder(text.subSequence(start, text.length()))));
+		}
+		return pieces;
+	}
+
+	/** Return the tree of the segments of a followed by the segments of b.
+	 * Either may be null, for no segments. */
+	private static Segment join(Segment a, Segment b)
+	{
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		if (a.priority > b.priority) {
+			a.right = join(a.right, b);
+			a.update();
+			return a;
+		}
+		b.left = join(a, b.left);
+		b.update();
+		return b;
+	}
+
+	/** Return the tree of a list of segments, in order */
+	private static Segment join(Segment t, List<Segment> segments)
+	{
+		for (Segment s : segments) {
+			t = join(t, s);
+		}
+		return t;
+	}
+
+	/** Split a tree into the tree of its first count segments and the tree of the rest */
+	private static Segment[] splitAt(Segment t, int count)
+	{
+		if (t == null) {
+			return new Segment[2];
+		}
+		int leftSize = t.left == null ? 0 : t.left.size;
+		Segment[] parts;
+		if (count <= leftSize) {
+			parts = splitAt(t.left, count);
+			t.left = parts[1];
+			parts[1] = t;
+		}
+		else {
+			parts = splitAt(t.right, count - leftSize - 1);
+			t.right = parts[0];
+			parts[0] = t;
+		}
+		t.update();
+		return parts;
+	}
+
+	/** Return the segment at index in a tree */
+	private static Segment segmentAt(Segment t, int index)
+	{
+		while (true) {
+			int leftSize = t.left == null ? 0 : t.left.size;
+			if (index < leftSize) {
+				t = t.left;
+			}
+			else if (index == leftSize) {
+				return t;
+			}
+			else {
+				index -= leftSize + 1;
+				t = t.right;
+			}
+		}
+	}
+
+	/** Return the index in the document of the first character of the segment at index */
+	private int segmentStart(int index)
+	{
+		int start = 0;
+		for (Segment t = root; ; ) {
+			int leftSize = t.left == null ? 0 : t.left.size;
+			if (index < leftSize) {
+				t = t.left;
+			}
+			else {
+				start += t.left == null ? 0 : t.left.length;
+				if (index == leftSize) {
+					return start;
+				}
+				start += t.text.length();
+				index -= leftSize + 1;
+				t = t.right;
+			}
+		}
+	}
+
+	/** Return the index of the segment containing the character at position,
+	 * or the last segment if position is the length of the document */
+	private int segmentAt(int position)
+	{
+		if (position >= root.length) {
+			return root.size - 1;
+		}
+		int index = 0;
+		for (Segment t = root; ; ) {
+			int leftLength = t.left == null ? 0 : t.left.length;
+			int leftSize = t.left == null ? 0 : t.left.size;
+			if (position < leftLength) {
+				t = t.left;
+			}
+			else if (position < leftLength + t.text.length()) {
+				return index + leftSize;
+			}
+			else {
+				position -= leftLength + t.text.length();
+				index += leftSize + 1;
+				t = t.right;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of sentences in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the IncrementalDocument object.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public int getNumSentences() {
+		// the last sentence counts even without punctuation
+		return root.sentenceEnds + (root.endsWithWord ? 1 : 0);
+	}
+
+	/**
+	 * Get the number of words in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the IncrementalDocument object.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public int getNumWords() {
+		return root.words;
+	}
+
+	/**
+	 * Get the total number of syllables in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the IncrementalDocument object.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public int getNumSyllables() {
+		return root.syllables;
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		IncrementalDocument doc = new IncrementalDocument("This is a test.");
+		testCase(doc, 4, 4, 1);
+		doc.insert(doc.length(), "  How many???  Senteeeeeeeeeences are here...");
+		doc.insert(doc.length(), " there should be 5!  Right?");
+		testCase(doc, 16, 13, 5);
+		doc.delete(0, doc.length());
+		testCase(doc, 0, 0, 0);
+		doc.insert(0, "Sentences?!");
+		testCase(doc, 3, 1, 1);
+		doc.delete(9, 11);
+		testCase(doc, 3, 1, 1);
+		doc.replace(0, 9, "Segue");
+		testCase(doc, 2, 1, 1);
+
+		// random edits on War and Peace, checked against EfficientDocument
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", 200000);
+		StringBuilder expected = new StringBuilder(text);
+		doc = new IncrementalDocument(text);
+		Random random = new Random(42);
+		String pieces = "abcdeEy .!?,\n";
+		boolean passed = true;
+		for (int i = 0; i < 5000 && passed; i++) {
+			int start = random.nextInt(expected.length() + 1);
+			int end = Math.min(expected.length(), start + random.nextInt(random.nextInt(10) == 0 ? 10000 : 5));
+			StringBuilder inserted = new StringBuilder();
+			for (int n = random.nextInt(6); n > 0; n--) {
+				inserted.append(pieces.charAt(random.nextInt(pieces.length())));
+			}
+			expected.replace(start, end, inserted.toString());
+			doc.replace(start, end, inserted.toString());
+
+			EfficientDocument check = new EfficientDocument(expected.toString());
+			passed = doc.getNumWords() == check.getNumWords()
+					&& doc.getNumSentences() == check.getNumSentences()
+					&& doc.getNumSyllables() == check.getNumSyllables()
+					&& doc.length() == expected.length();
+		}
+		passed &= doc.getText().equals(expected.toString());
+		System.out.println(passed ? "Random edits passed." : "Random edits FAILED.");
+
+		// long edits that split, join and remove many segments: pieces of the book,
+		// runs of letters without a separator, and deletions across many segments
+		String book = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		passed = true;
+		for (int i = 0; i < 20000 && passed; i++) {
+			int start = random.nextInt(expected.length() + 1);
+			int end = start;
+			String inserted = "";
+			switch (random.nextInt(4)) {
+			case 0:
+				int from = random.nextInt(book.length() - 2 * MAX_SEGMENT_LENGTH);
+				inserted = book.substring(from, from + random.nextInt(2 * MAX_SEGMENT_LENGTH));
+				break;
+			case 1:
+				StringBuilder letters = new StringBuilder();
+				for (int n = random.nextInt(MAX_SEGMENT_LENGTH / 8); n > 0; n--) {
+					letters.append((char) ('a' + random.nextInt(26)));
+				}
+				inserted = letters.toString();
+				break;
+			default:
+				end = Math.min(expected.length(), start + random.nextInt(3 * MAX_SEGMENT_LENGTH));
+			}
+			expected.replace(start, end, inserted);
+			doc.replace(start, end, inserted);
+
+			EfficientDocument check = new EfficientDocument(expected.toString());
+			passed = doc.getNumWords() == check.getNumWords()
+					&& doc.getNumSentences() == check.getNumSentences()
+					&& doc.getNumSyllables() == check.getNumSyllables()
+					&& doc.length() == expected.length();
+		}
+		passed &= doc.getText().equals(expected.toString());
+		System.out.println(passed ? "Long edits passed." : "Long edits FAILED.");
+
+		// the time of an edit only grows with the log of the number of segments
+		final double CONVERSION_FACTOR = 1000000000.0;
+		System.out.println("Length\t Time per edit");
+		for (int copies = 1; copies <= 16; copies *= 4) {
+			StringBuilder large = new StringBuilder();
+			for (int n = 0; n < copies; n++) {
+				large.append(book);
+			}
+			doc = new IncrementalDocument(large.toString());
+			long startTime = System.nanoTime();
+			for (int i = 0; i < 20000; i++) {
+				int start = random.nextInt(doc.length() - MAX_SEGMENT_LENGTH);
+				if (i % 2 == 0) {
+					doc.insert(start, book.substring(start % book.length() / 2, start % book.length() / 2 + 100));
+				}
+				else {
+					doc.delete(start, start + 100);
+				}
+			}
+			System.out.println(doc.length() + "\t " + (System.nanoTime() - startTime) / CONVERSION_FACTOR / 20000);
+		}
+	}
+
+}
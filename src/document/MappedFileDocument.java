@@ -0,0 +1,156 @@
+package document;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A text document that is counted directly from a memory-mapped file, without
+ * decoding it into a String.  The file must be ASCII or UTF-8 encoded: every byte of
+ * a multi-byte UTF-8 character is 0x80 or above, so it is treated like the decoded
+ * (non a-z, A-Z) character would be, and the counts are the same as those of an
+ * EfficientDocument over the decoded text.
+ *
+ * The file is mapped one window at a time, so files larger than 2 GB can be counted.
+ * The text itself is not kept, so it is not a Document: it gives the counts of the
+ * text, but not the text or its tokens.
+ */
+public class MappedFileDocument implements TextCounts {
+
+	/** The default number of bytes mapped at a time */
+	public static final long DEFAULT_WINDOW_SIZE = 1L << 28;
+
+	private long numWords;  // The number of words in the document
+	private long numSentences;  // The number of sentences in the document
+	private long numSyllables;  // The number of syllables in the document
+	private long numLetters;  // The number of letters in the words of the document
+	private long numPolysyllables;  // The number of words with three or more syllables
+
+	/** Create a new MappedFileDocument from the file with the given name
+	 * @param filename The name of the file to count
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedFileDocument(String filename) throws IOException
+	{
+		this(Paths.get(filename), DEFAULT_WINDOW_SIZE);
+	}
+
+	/** Create a new MappedFileDocument from the given file, mapping windowSize
+	 * bytes at a time
+	 * @param path The file to count
+	 * @param windowSize The number of bytes to map at a time, at most Integer.MAX_VALUE
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedFileDocument(Path path, long windowSize) throws IOException
+	{
+		if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Window size out of range: " + windowSize);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			processFile(channel, windowSize);
+		}
+	}
+
+    /** Passes through the file one time, one mapped window at a time, to count the
+     * number of words, syllables and sentences, and set the member variables
+     * appropriately.  The scanner keeps its state between windows, so tokens cut
+     * by a window boundary are counted correctly.
+     */
+	private void processFile(FileChannel channel, long windowSize) throws IOException
+	{
+		long startTime = System.nanoTime();
+		DocumentScanner scanner = new DocumentScanner();
+		long size = channel.size();
+		for (long position = 0; position < size; position += windowSize) {
+			int length = (int) Math.min(windowSize, size - position);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			scanner.scan(window);
+		}
+		DocumentMetrics.recordScan(size, System.nanoTime() - startTime);
+
+		numWords = scanner.getNumWords();
+		numSentences = scanner.getNumSentences();
+		numSyllables = scanner.getNumSyllables();
+		numLetters = scanner.getNumLetters();
+		numPolysyllables = scanner.getNumPolysyllables();
+	}
+
+	/**
+	 * Get the number of sentences in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the MappedFileDocument object.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public long getNumSentences() {
+		return numSentences;
+	}
+
+	/**
+	 * Get the number of words in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the MappedFileDocument object.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public long getNumWords() {
+		return numWords;
+	}
+
+	/**
+	 * Get the total number of syllables in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the MappedFileDocument object.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public long getNumSyllables() {
+		return numSyllables;
+	}
+
+	/**
+	 * Get the number of letters (a-z or A-Z) in the words of the document.
+	 * This method returns information already stored in the MappedFileDocument object.
+	 *
+	 * @return The number of letters in the document.
+	 */
+	@Override
+	public long getNumLetters() {
+		return numLetters;
+	}
+
+	/**
+	 * Get the number of polysyllabic words in the document, i.e. words
+	 * with three or more syllables.
+	 * This method returns information already stored in the MappedFileDocument object.
+	 *
+	 * @return The number of polysyllabic words in the document.
+	 */
+	@Override
+	public long getNumPolysyllables() {
+		return numPolysyllables;
+	}
+
+	// Can be used for testing
+	public static void main(String[] args) throws IOException
+	{
+		String textfile = "data/warAndPeace.txt";
+		EfficientDocument expected = new EfficientDocument(
+				DocumentBenchmarking.getStringFromFile(textfile, Integer.MAX_VALUE));
+
+		// small odd-sized windows cut words and punctuation runs in many places
+		for (long windowSize : new long[] { 4097, 65537, DEFAULT_WINDOW_SIZE }) {
+			MappedFileDocument doc = new MappedFileDocument(Paths.get(textfile), windowSize);
+			boolean passed = doc.getNumWords() == expected.getNumWords()
+					&& doc.getNumSentences() == expected.getNumSentences()
+					&& doc.getNumSyllables() == expected.getNumSyllables()
+					&& doc.getNumLetters() == expected.getNumLetters()
+					&& doc.getNumPolysyllables() == expected.getNumPolysyllables();
+			System.out.println("Window size " + windowSize + (passed ? ": passed." : ": FAILED."));
+		}
+	}
+
+}
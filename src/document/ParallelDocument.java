@@ -0,0 +1,192 @@
+package document;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A text document whose words, sentences and syllables are counted in parallel.
+ * The text is split into chunks, each chunk is counted by a DocumentScanner in
+ * its own fork/join task and the partial counts are merged.  Chunks are only cut
+ * at characters that are neither letters nor sentence-ending punctuation, so no
+ * word or punctuation run is shared by two chunks and the counts are exactly the
+ * same as those of an EfficientDocument.
+ *
+ * WordCollectors are supported the same way: each chunk has its own empty copies
+ * of the collectors, which are merged with the counts.
+ */
+public class ParallelDocument extends Document {
+
+	/** Texts (and chunks) shorter than this are counted on a single thread */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private int numWords;  // The number of words in the document
+	private int numSentences;  // The number of sentences in the document
+	private int numSyllables;  // The number of syllables in the document
+
+	/** Create a new ParallelDocument counted on the common fork/join pool
+	 * @param text The full text of the Document.
+	 */
+	public ParallelDocument(String text)
+	{
+		this(text, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/** Create a new ParallelDocument counted on the given pool
+	 * @param text The full text of the Document.
+	 * @param pool The pool to run the counting tasks on
+	 * @param chunkSize The number of characters below which a chunk is not split further
+	 */
+	public ParallelDocument(String text, ForkJoinPool pool, int chunkSize)
+	{
+		this(text, pool, chunkSize, new WordCollector[0]);
+	}
+
+	/** Create a new ParallelDocument counted on the given pool, that also
+	 * passes every word of the text to the given collectors
+	 * @param text The full text of the Document.
+	 * @param pool The pool to run the counting tasks on
+	 * @param chunkSize The number of characters below which a chunk is not split further
+	 * @param collectors The collectors of the words, which must be mergeable
+	 */
+	public ParallelDocument(String text, ForkJoinPool pool, int chunkSize, WordCollector... collectors)
+	{
+		super(text);
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		long startTime = System.nanoTime();
+		DocumentScanner scanner = pool.invoke(new CountTask(text, 0, text.length(), chunkSize, collectors));
+		scanner.flushWord();
+		WordCollector[] collected = scanner.getCollectors();
+		for (int i = 0; i < collectors.length; i++) {
+			collectors[i].merge(collected[i]);
+		}
+		DocumentMetrics.recordScan(text.length(), System.nanoTime() - startTime);
+
+		numWords = Math.toIntExact(scanner.getNumWords());
+		numSentences = Math.toIntExact(scanner.getNumSentences());
+		numSyllables = Math.toIntExact(scanner.getNumSyllables());
+	}
+
+	/** Counts the characters of text from start to end, splitting the range in
+	 * two at a separator character while it is longer than the chunk size. */
+	private static class CountTask extends RecursiveTask<DocumentScanner> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String text;
+		private final int start;
+		private final int end;
+		private final int chunkSize;
+		private final WordCollector[] collectors;  // the collectors to copy for each chunk
+
+		CountTask(String text, int start, int end, int chunkSize, WordCollector[] collectors)
+		{
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+			this.collectors = collectors;
+		}
+
+		@Override
+		protected DocumentScanner compute()
+		{
+			int split = end;
+			if (end - start > chunkSize) {
+				// move forward from the middle to the first safe place to cut
+				split = start + (end - start) / 2;
+				while (split < end && !DocumentScanner.isSeparator(text.charAt(split))) {
+					split++;
+				}
+			}
+
+			if (split == end) {
+				return new DocumentScanner(DocumentScanner.newEmpty(collectors)).scan(text, start, end);
+			}
+
+			CountTask right = new CountTask(text, split, end, chunkSize, collectors);
+			right.fork();
+			DocumentScanner left = new CountTask(text, start, split, chunkSize, collectors).compute();
+			return left.merge(right.join());
+		}
+	}
+
+	/**
+	 * Get the number of sentences in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the ParallelDocument object.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public int getNumSentences() {
+		return numSentences;
+	}
+
+	/**
+	 * Get the number of words in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the ParallelDocument object.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public int getNumWords() {
+		return numWords;
+	}
+
+	/**
+	 * Get the total number of syllables in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the ParallelDocument object.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public int getNumSyllables() {
+		return numSyllables;
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		// a chunk size of 1 makes every separator a cut
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		testCase(new ParallelDocument("This is a test.  How many???  "
+				+ "Senteeeeeeeeeences are here... there should be 5!  Right?", pool, 1),
+				16, 13, 5);
+		testCase(new ParallelDocument("", pool, 1), 0, 0, 0);
+		testCase(new ParallelDocument("sentence, with, lots, of, commas.!  "
+				+ "(And some poaren)).  The output is: 7.5.", pool, 1), 15, 11, 4);
+		testCase(new ParallelDocument("many???  Senteeeeeeeeeences are", pool, 1), 6, 3, 2);
+		testCase(new ParallelDocument("Segue", pool, 1), 2, 1, 1);
+		testCase(new ParallelDocument("Sentences?!", pool, 1), 3, 1, 1);
+		testCase(new ParallelDocument("Lorem ipsum dolor sit amet, qui ex choro quodsi moderatius, "
+				+ "nam dolores explicari forensibus ad.", pool, 1), 32, 15, 1);
+
+		// time against EfficientDocument on the whole of War and Peace
+		final double CONVERSION_FACTOR = 1000000000.0;
+		int trials = 20;
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+
+		System.out.println("Threads\t EfficientTime\t ParallelTime");
+		long startTime = System.nanoTime();
+		EfficientDocument efficientDoc = null;
+		for (int i = 0; i < trials; i++) {
+			efficientDoc = new EfficientDocument(text);
+		}
+		double timeEfficientDoc = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+		startTime = System.nanoTime();
+		ParallelDocument parallelDoc = null;
+		for (int i = 0; i < trials; i++) {
+			parallelDoc = new ParallelDocument(text);
+		}
+		double timeParallelDoc = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+		System.out.println(pool.getParallelism() + "\t" + timeEfficientDoc + "\t" + timeParallelDoc);
+		boolean passed = parallelDoc.getNumWords() == efficientDoc.getNumWords()
+				&& parallelDoc.getNumSentences() == efficientDoc.getNumSentences()
+				&& parallelDoc.getNumSyllables() == efficientDoc.getNumSyllables();
+		System.out.println(passed ? "Counts match EfficientDocument." : "Counts do NOT match EfficientDocument!");
+	}
+
+}
@@ -0,0 +1,90 @@
+package document;
+
+/**
+ * The readability indexes that can be computed from the counts collected in one
+ * pass over a text by a DocumentScanner (and stored by EfficientDocument).
+ * Each index only combines counts, so adding an index never adds a pass over the text.
+ *
+ * Like Document.getFleschScore, an index of a text without words or sentences
+ * is not a number (NaN).
+ */
+public enum ReadabilityIndex {
+
+	/** Flesch reading ease, higher is easier (the same as Document.getFleschScore) */
+	FLESCH_READING_EASE {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			return 206.835 - 1.015 * ((double) words / sentences) - 84.6 * ((double) syllables / words);
+		}
+	},
+
+	/** Flesch-Kincaid grade level, as a US school grade */
+	FLESCH_KINCAID_GRADE {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			return 0.39 * ((double) words / sentences) + 11.8 * ((double) syllables / words) - 15.59;
+		}
+	},
+
+	/** Gunning fog index, counting words of three or more syllables as complex */
+	GUNNING_FOG {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			return 0.4 * ((double) words / sentences + 100.0 * polysyllables / words);
+		}
+	},
+
+	/** SMOG grade, normalized to a sample of 30 sentences */
+	SMOG {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			return 1.043 * Math.sqrt(polysyllables * (30.0 / sentences)) + 3.1291;
+		}
+	},
+
+	/** Coleman-Liau index, from letters and sentences per 100 words */
+	COLEMAN_LIAU {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			double lettersPer100 = 100.0 * letters / words;
+			double sentencesPer100 = 100.0 * sentences / words;
+			return 0.0588 * lettersPer100 - 0.296 * sentencesPer100 - 15.8;
+		}
+	},
+
+	/** Automated readability index, from letters per word and words per sentence */
+	AUTOMATED_READABILITY {
+		@Override
+		public double score(long words, long sentences, long syllables, long letters, long polysyllables)
+		{
+			return 4.71 * ((double) letters / words) + 0.5 * ((double) words / sentences) - 21.43;
+		}
+	};
+
+	/** Compute this index from the counts of a text
+	 * @param words The number of words
+	 * @param sentences The number of sentences
+	 * @param syllables The number of syllables
+	 * @param letters The number of letters in all words
+	 * @param polysyllables The number of words of three or more syllables
+	 * @return the value of this index
+	 */
+	public abstract double score(long words, long sentences, long syllables, long letters, long polysyllables);
+
+	/** Compute this index from the counts of a text, such as those collected
+	 * by a DocumentScanner
+	 * @param counts The counts of the text
+	 * @return the value of this index
+	 */
+	public double score(TextCounts counts)
+	{
+		return score(counts.getNumWords(), counts.getNumSentences(), counts.getNumSyllables(),
+				counts.getNumLetters(), counts.getNumPolysyllables());
+	}
+
+}
@@ -0,0 +1,238 @@
+package document;
+
+import java.util.Random;
+
+/**
+ * A text document that arrives in fragments, such as a live transcript, with
+ * readability scores of both the whole text and a window of its last sentences.
+ *
+ * Each appended fragment is scanned once by a DocumentScanner, which keeps its
+ * state between fragments, so earlier text is never scanned again and is not
+ * kept.  A sentence is complete as soon as its sentence-ending punctuation
+ * arrives, and its word, syllable, letter and polysyllable counts then go into a
+ * ring buffer of the last windowSize sentences.  The sums over the window are
+ * kept up to date as sentences enter and leave it, so each sentence costs O(1),
+ * and so does each score.
+ *
+ * The counts and Flesch score of the document itself are those of the whole
+ * text appended so far, exactly as an EfficientDocument over it would give
+ * them.  The text is not kept, so it is not a Document: it gives the counts of
+ * the text, but not the text or its tokens.  A RollingDocument is not thread-safe.
+ */
+public class RollingDocument implements TextCounts {
+
+	private final DocumentScanner scanner = new DocumentScanner();
+
+	// counts of the complete sentences in the window, in a ring buffer
+	private final long[] sentenceWords;
+	private final long[] sentenceSyllables;
+	private final long[] sentenceLetters;
+	private final long[] sentencePolysyllables;
+	private int next;  				// where the next complete sentence goes in the ring
+	private int windowSentences;  	// the number of sentences in the window
+	private long windowWords;
+	private long windowSyllables;
+	private long windowLetters;
+	private long windowPolysyllables;
+
+	// the counts of the text before the sentence being scanned
+	private long numSentenceEnds;
+	private long wordsBefore;
+	private long syllablesBefore;
+	private long lettersBefore;
+	private long polysyllablesBefore;
+
+	/** Create a new, empty RollingDocument
+	 * @param windowSize The number of complete sentences in the window
+	 */
+	public RollingDocument(int windowSize)
+	{
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+		}
+		sentenceWords = new long[windowSize];
+		sentenceSyllables = new long[windowSize];
+		sentenceLetters = new long[windowSize];
+		sentencePolysyllables = new long[windowSize];
+	}
+
+	/** Add the next fragment of the text.  Fragments can be cut anywhere,
+	 * also inside words and punctuation runs.
+	 * @param fragment The text that follows what was appended before
+	 */
+	public void append(CharSequence fragment)
+	{
+		for (int i = 0; i < fragment.length(); i++) {
+			scanner.accept(fragment.charAt(i));
+			if (scanner.getNumSentenceEnds() != numSentenceEnds) {
+				// the first punctuation mark of a run ends the sentence
+				endSentence();
+			}
+		}
+	}
+
+	/** Move the counts of the sentence that just ended into the window */
+	private void endSentence()
+	{
+		numSentenceEnds = scanner.getNumSentenceEnds();
+		long words = scanner.getNumWords() - wordsBefore;
+		long syllables = scanner.getNumSyllables() - syllablesBefore;
+		long letters = scanner.getNumLetters() - lettersBefore;
+		long polysyllables = scanner.getNumPolysyllables() - polysyllablesBefore;
+		wordsBefore += words;
+		syllablesBefore += syllables;
+		lettersBefore += letters;
+		polysyllablesBefore += polysyllables;
+
+		if (windowSentences == sentenceWords.length) {
+			// the oldest sentence leaves the window
+			windowWords -= sentenceWords[next];
+			windowSyllables -= sentenceSyllables[next];
+			windowLetters -= sentenceLetters[next];
+			windowPolysyllables -= sentencePolysyllables[next];
+		}
+		else {
+			windowSentences++;
+		}
+		sentenceWords[next] = words;
+		sentenceSyllables[next] = syllables;
+		sentenceLetters[next] = letters;
+		sentencePolysyllables[next] = polysyllables;
+		windowWords += words;
+		windowSyllables += syllables;
+		windowLetters += letters;
+		windowPolysyllables += polysyllables;
+		next = (next + 1) % sentenceWords.length;
+	}
+
+	/** Return the number of complete sentences in the window, at most the window size */
+	public int getWindowSentences()
+	{
+		return windowSentences;
+	}
+
+	/** Return the number of words in the sentences of the window */
+	public long getWindowWords()
+	{
+		return windowWords;
+	}
+
+	/** Return the number of syllables in the sentences of the window */
+	public long getWindowSyllables()
+	{
+		return windowSyllables;
+	}
+
+	/** Return the Flesch score of the last complete sentences, up to the window
+	 * size.  Words after the last sentence-ending punctuation are not included
+	 * until their sentence ends.  NaN if no sentence with words is complete. */
+	public double getWindowScore()
+	{
+		return getWindowScore(ReadabilityIndex.FLESCH_READING_EASE);
+	}
+
+	/** Return a readability index of the last complete sentences, up to the window size
+	 * @param index The readability index to compute
+	 * @return the value of the index over the window
+	 */
+	public double getWindowScore(ReadabilityIndex index)
+	{
+		return index.score(windowWords, windowSentences, windowSyllables, windowLetters, windowPolysyllables);
+	}
+
+	/**
+	 * Get the number of words appended so far, as defined by EfficientDocument.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public long getNumWords() {
+		return scanner.getNumWords();
+	}
+
+	/**
+	 * Get the number of sentences appended so far, as defined by EfficientDocument.
+	 * A trailing sentence that has no punctuation yet is counted.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public long getNumSentences() {
+		return scanner.getNumSentences();
+	}
+
+	/**
+	 * Get the number of syllables appended so far, as defined by EfficientDocument.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public long getNumSyllables() {
+		return scanner.getNumSyllables();
+	}
+
+	/**
+	 * Get the number of letters (a-z or A-Z) in the words appended so far.
+	 *
+	 * @return The number of letters in the document.
+	 */
+	@Override
+	public long getNumLetters() {
+		return scanner.getNumLetters();
+	}
+
+	/**
+	 * Get the number of words with three or more syllables appended so far.
+	 *
+	 * @return The number of polysyllabic words in the document.
+	 */
+	@Override
+	public long getNumPolysyllables() {
+		return scanner.getNumPolysyllables();
+	}
+
+	// Appends War and Peace in random fragments and checks the window after each one
+	public static void main(String[] args)
+	{
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", 300000);
+		int windowSize = 10;
+
+		// where each run of sentence-ending punctuation ends, to find the text of a window
+		TokenIndex.Tokens tokens = new TokenIndex(text).getReadabilityTokens();
+		int[] runEnds = new int[tokens.size()];
+		int numRuns = 0;
+		for (int i = 0; i < tokens.size(); i++) {
+			if (tokens.type(i) == TokenIndex.SENTENCE_END) {
+				runEnds[numRuns++] = tokens.end(i);
+			}
+		}
+
+		RollingDocument doc = new RollingDocument(windowSize);
+		Random random = new Random(42);
+		boolean passed = true;
+		int sentences = 0;
+		for (int start = 0; start < text.length(); ) {
+			int end = Math.min(text.length(), start + 1 + random.nextInt(200));
+			doc.append(text.subSequence(start, end));
+			start = end;
+
+			int complete = (int) doc.getNumSentences() - (doc.scanner.lastTokenIsWord() ? 1 : 0);
+			if (complete != sentences && complete >= windowSize) {
+				sentences = complete;
+				int from = complete == windowSize ? 0 : runEnds[complete - windowSize - 1];
+				EfficientDocument window = new EfficientDocument(text.substring(from, runEnds[complete - 1]));
+				passed &= window.getNumSentences() == doc.getWindowSentences()
+						&& window.getNumWords() == doc.getWindowWords()
+						&& window.getNumSyllables() == doc.getWindowSyllables()
+						&& Double.compare(window.getFleschScore(), doc.getWindowScore()) == 0;
+			}
+		}
+		EfficientDocument whole = new EfficientDocument(text);
+		passed &= whole.getNumWords() == doc.getNumWords() && whole.getNumSentences() == doc.getNumSentences()
+				&& whole.getNumSyllables() == doc.getNumSyllables()
+				&& Double.compare(whole.getFleschScore(), doc.getFleschScore()) == 0;
+		System.out.println("Window score: " + doc.getWindowScore() + ", cumulative score: " + doc.getFleschScore());
+		System.out.println(passed ? "passed." : "FAILED.");
+	}
+
+}
@@ -0,0 +1,283 @@
+package document;
+
+import java.util.Arrays;
+
+/**
+ * An index of the sentences of a text that gives the word, sentence and syllable
+ * counts (and so the Flesch score) of any range of characters without processing
+ * the range again.
+ *
+ * The index stores the offsets of every word and sentence-ending punctuation run,
+ * together with prefix sums of words, syllables and sentence ends up to each of
+ * them.  A range is found with two binary searches, and only a word cut by the
+ * start or end of the range is scanned, so a query takes O(log n) time.  The counts
+ * of a range are exactly those of an EfficientDocument over the same substring.
+ *
+ * The offsets and sums are recorded by a TokenCollector during the counting pass
+ * of a DocumentScanner, so an EfficientDocument created with indexSentences gives
+ * both its counts and its index from one pass over the text.
+ */
+public class SentenceIndex {
+
+	private final CharSequence text;
+	private int size;  				// the number of tokens
+	private int[] starts;  			// the index in the text of the first character of each token
+	private int[] ends;  			// the index after the last character of each token
+	private boolean[] isWord;  		// true for a word, false for sentence-ending punctuation
+	private int[] wordsBefore;  	// the number of words before each token (size + 1 entries)
+	private int[] syllablesBefore;  // the number of syllables before each token
+	private int[] sentenceEndsBefore;  // the number of sentence-ending punctuation runs before each token
+
+	/** The offsets and counts of the tokens of a text, as a scanner finds them */
+	static final class Collector implements TokenCollector {
+		private int size;
+		private int[] starts = new int[16];
+		private int[] ends = new int[16];
+		private boolean[] isWord = new boolean[16];
+		private int[] wordsBefore = new int[17];
+		private int[] syllablesBefore = new int[17];
+		private int[] sentenceEndsBefore = new int[17];
+
+		@Override
+		public void addToken(long start, long end, boolean word, DocumentScanner counts)
+		{
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * size);
+				ends = Arrays.copyOf(ends, 2 * size);
+				isWord = Arrays.copyOf(isWord, 2 * size);
+				wordsBefore = Arrays.copyOf(wordsBefore, 2 * size + 1);
+				syllablesBefore = Arrays.copyOf(syllablesBefore, 2 * size + 1);
+				sentenceEndsBefore = Arrays.copyOf(sentenceEndsBefore, 2 * size + 1);
+			}
+			starts[size] = Math.toIntExact(start);
+			ends[size] = Math.toIntExact(end);
+			isWord[size] = word;
+			size++;
+			wordsBefore[size] = Math.toIntExact(counts.getNumWords());
+			syllablesBefore[size] = Math.toIntExact(counts.getNumSyllables());
+			sentenceEndsBefore[size] = Math.toIntExact(counts.getNumSentenceEnds());
+		}
+	}
+
+	/** Build the index of a text, in one pass over it.
+	 * The text must not change while the index is used.
+	 * @param text The text to index
+	 */
+	public SentenceIndex(CharSequence text)
+	{
+		this(text, collect(text));
+	}
+
+	/** Build the index from the readability tokens of a token index,
+	 * only visiting the characters of the tokens
+	 * @param index The token index of the text
+	 */
+	public SentenceIndex(TokenIndex index)
+	{
+		this(index.getText(), collect(index));
+	}
+
+	/** Build the index from the tokens collected by a scanner of the whole text
+	 * @param text The text that was scanned
+	 * @param tokens The collector of the scanner, after flushWord was called
+	 */
+	SentenceIndex(CharSequence text, Collector tokens)
+	{
+		this.text = text;
+		size = tokens.size;
+		starts = tokens.starts;
+		ends = tokens.ends;
+		isWord = tokens.isWord;
+		wordsBefore = tokens.wordsBefore;
+		syllablesBefore = tokens.syllablesBefore;
+		sentenceEndsBefore = tokens.sentenceEndsBefore;
+	}
+
+	/** Return the tokens of the whole text */
+	private static Collector collect(CharSequence text)
+	{
+		Collector tokens = new Collector();
+		new DocumentScanner(tokens).scan(text).flushWord();
+		return tokens;
+	}
+
+	/** Return the tokens of a text, only visiting the characters of the tokens */
+	private static Collector collect(TokenIndex index)
+	{
+		Collector tokens = new Collector();
+		new DocumentScanner(tokens).scan(index.getText(), index.getReadabilityTokens()).flushWord();
+		return tokens;
+	}
+
+	/** Return the text this index was built from */
+	public CharSequence getText()
+	{
+		return text;
+	}
+
+	/** Return the number of sentences of the whole text */
+	public int getNumSentences()
+	{
+		return sentenceEndsBefore[size] + (size > 0 && isWord[size - 1] ? 1 : 0);
+	}
+
+	/** Return the counts of the characters of the text from start (inclusive)
+	 * to end (exclusive), as a Document
+	 * @param start The index of the first character of the range
+	 * @param end The index after the last character of the range
+	 * @return a Document with the counts of the range
+	 */
+	public Document range(int start, int end)
+	{
+		if (start < 0 || end < start || end > text.length()) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end
+					+ ") out of bounds for length " + text.length());
+		}
+
+		// the first token ending after start, and the first token starting at or after end
+		int first = firstIndexAbove(ends, start);
+		int last = firstIndexAbove(starts, end - 1);
+		if (first >= last || start == end) {
+			return new Range(text, start, end, 0, 0, 0);
+		}
+
+		// tokens cut by the range are scanned on their own, the rest come from the sums
+		DocumentScanner edges = new DocumentScanner();
+		int inner = first;
+		int innerEnd = last;
+		if (starts[first] < start || ends[first] > end) {
+			edges.scan(text, start, Math.min(ends[first], end));
+			edges.accept(' ');
+			inner++;
+		}
+		if (innerEnd > inner && ends[last - 1] > end) {
+			edges.scan(text, starts[last - 1], end);
+			innerEnd--;
+		}
+
+		int words = Math.toIntExact(edges.getNumWords());
+		int syllables = Math.toIntExact(edges.getNumSyllables());
+		int sentences = Math.toIntExact(edges.getNumSentenceEnds());
+		if (inner < innerEnd) {
+			words += wordsBefore[innerEnd] - wordsBefore[inner];
+			syllables += syllablesBefore[innerEnd] - syllablesBefore[inner];
+			sentences += sentenceEndsBefore[innerEnd] - sentenceEndsBefore[inner];
+		}
+		// the last sentence counts even without punctuation
+		if (isWord[last - 1]) {
+			sentences++;
+		}
+		return new Range(text, start, end, words, sentences, syllables);
+	}
+
+	/** Return the smallest index i with values[i] > key, or size if there is none */
+	private int firstIndexAbove(int[] values, int key)
+	{
+		int i = Arrays.binarySearch(values, 0, size, key + 1);
+		if (i < 0) {
+			return -i - 1;
+		}
+		// offsets are strictly increasing, so there is only one match
+		return i;
+	}
+
+	/** The counts of a range of the text */
+	private static class Range extends Document {
+		private final CharSequence text;
+		private final int start;
+		private final int end;
+		private final int numWords;
+		private final int numSentences;
+		private final int numSyllables;
+
+		Range(CharSequence text, int start, int end, int numWords, int numSentences, int numSyllables)
+		{
+			super(null);
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			this.numWords = numWords;
+			this.numSentences = numSentences;
+			this.numSyllables = numSyllables;
+		}
+
+		@Override
+		public String getText()
+		{
+			return text.subSequence(start, end).toString();
+		}
+
+		@Override
+		public int getNumWords()
+		{
+			return numWords;
+		}
+
+		@Override
+		public int getNumSentences()
+		{
+			return numSentences;
+		}
+
+		@Override
+		public int getNumSyllables()
+		{
+			return numSyllables;
+		}
+	}
+
+	// Can be used for testing
+	public static void main(String[] args)
+	{
+		String text = "This is a test.  How many???  "
+				+ "Senteeeeeeeeeences are here... there should be 5!  Right?";
+		SentenceIndex index = new SentenceIndex(text);
+		Document.testCase(index.range(0, text.length()), 16, 13, 5);
+		Document.testCase(index.range(0, 15), 4, 4, 1);
+		Document.testCase(index.range(17, 26), 3, 2, 1);
+		Document.testCase(index.range(30, 36), 2, 1, 1);  // "Sentee", cut inside a word
+		Document.testCase(index.range(26, 26), 0, 0, 0);
+
+		// every range of a short text, checked against EfficientDocument
+		text = "sentence, with, lots, of, commas.!  (And some poaren)).  The output is: 7.5. Segue";
+		index = new SentenceIndex(text);
+		boolean passed = true;
+		for (int start = 0; start <= text.length(); start++) {
+			for (int end = start; end <= text.length(); end++) {
+				Document range = index.range(start, end);
+				EfficientDocument expected = new EfficientDocument(text.substring(start, end));
+				passed &= range.getNumWords() == expected.getNumWords()
+						&& range.getNumSentences() == expected.getNumSentences()
+						&& range.getNumSyllables() == expected.getNumSyllables();
+			}
+		}
+		System.out.println(passed ? "All ranges passed." : "Ranges FAILED.");
+
+		// the index recorded in the counting pass of a document, over the whole
+		// text or only its tokens, is the same as one built on its own
+		String book = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", 200000);
+		index = new SentenceIndex(book);
+		SentenceIndex[] recorded = {
+			new EfficientDocument(book, true).getSentenceIndex(),
+			new EfficientDocument(new TokenIndex(book), true).getSentenceIndex(),
+			new SentenceIndex(new TokenIndex(book)),
+		};
+		passed = true;
+		for (SentenceIndex other : recorded) {
+			passed &= other.size == index.size && other.getNumSentences() == index.getNumSentences();
+			for (int i = 0; i < index.size; i++) {
+				passed &= other.starts[i] == index.starts[i] && other.ends[i] == index.ends[i]
+						&& other.isWord[i] == index.isWord[i]
+						&& other.wordsBefore[i + 1] == index.wordsBefore[i + 1]
+						&& other.syllablesBefore[i + 1] == index.syllablesBefore[i + 1]
+						&& other.sentenceEndsBefore[i + 1] == index.sentenceEndsBefore[i + 1];
+			}
+		}
+		EfficientDocument whole = new EfficientDocument(book);
+		Document range = index.range(0, book.length());
+		passed &= range.getNumWords() == whole.getNumWords() && range.getNumSentences() == whole.getNumSentences()
+				&& range.getNumSyllables() == whole.getNumSyllables();
+		System.out.println(passed ? "Counting pass passed." : "Counting pass FAILED.");
+	}
+
+}
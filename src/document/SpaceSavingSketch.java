@@ -0,0 +1,316 @@
+package document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most frequent words of a text, found with the Space-Saving algorithm
+ * (Metwally, Agrawal and El Abbadi) while a DocumentScanner passes over it.
+ *
+ * The sketch keeps at most capacity counters, whatever the size of the text.  A
+ * word that has a counter adds one to it; a new word takes over the counter with
+ * the smallest count and adds one to that count, which is also recorded as the
+ * most it can be over the true count (its error).  Any word that occurs more than
+ * n / capacity times in a text of n words is sure to have a counter, and the top
+ * counts are exact for all but the rarest words when the capacity is several
+ * times the number of words asked for.
+ *
+ * Words are compared ignoring case, by their 64 bit hash, so a String is only
+ * built when a word takes over a counter.  Sketches with the same capacity are
+ * merged following Agarwal et al., "Mergeable Summaries": counts of the same word
+ * are added, a word missing from one sketch gets that sketch's smallest count
+ * (and error), and the capacity largest counts are kept.
+ */
+public class SpaceSavingSketch implements WordCollector {
+
+	/** A word with its estimated count */
+	public static class WordCount {
+		private final String word;
+		private final long count;
+		private final long error;
+
+		WordCount(String word, long count, long error)
+		{
+			this.word = word;
+			this.count = count;
+			this.error = error;
+		}
+
+		/** Return the word, in lower case */
+		public String getWord()
+		{
+			return word;
+		}
+
+		/** Return the estimated count, which is at least the true count */
+		public long getCount()
+		{
+			return count;
+		}
+
+		/** Return the most the estimated count can be over the true count */
+		public long getError()
+		{
+			return error;
+		}
+
+		@Override
+		public String toString()
+		{
+			return word + "=" + count + (error > 0 ? " (+-" + error + ")" : "");
+		}
+	}
+
+	private final int capacity;
+	private int size;  				// the number of counters in use
+	private long numWords;  		// the number of words added
+	private long[] hashes;  		// the hash of the word of each counter
+	private String[] words;  		// the word of each counter
+	private long[] counts;  		// the count of each counter
+	private long[] errors;  		// the error of each counter
+	private int[] heap;  			// the counters in a binary min-heap by count
+	private int[] heapIndex;  		// the place of each counter in the heap
+	private int[] slots;  			// hash table of counter index + 1, 0 for an empty slot
+
+	/** Create a new, empty sketch
+	 * @param capacity The number of counters, which bounds the memory used
+	 */
+	public SpaceSavingSketch(int capacity)
+	{
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		hashes = new long[capacity];
+		words = new String[capacity];
+		counts = new long[capacity];
+		errors = new long[capacity];
+		heap = new int[capacity];
+		heapIndex = new int[capacity];
+		// at most half full
+		slots = new int[Integer.highestOneBit(capacity) * 4];
+	}
+
+	@Override
+	public void addWord(char[] word, int length, long hash)
+	{
+		numWords++;
+		int slot = findSlot(hash);
+		if (slots[slot] != 0) {
+			int i = slots[slot] - 1;
+			counts[i]++;
+			siftDown(heapIndex[i]);
+			return;
+		}
+
+		if (size < capacity) {
+			int i = size++;
+			set(i, hash, new String(word, 0, length), 1, 0);
+			slots[slot] = i + 1;
+			heap[size - 1] = i;
+			heapIndex[i] = size - 1;
+			siftUp(size - 1);
+			return;
+		}
+
+		// take over the counter with the smallest count
+		int i = heap[0];
+		removeSlot(hashes[i]);
+		set(i, hash, new String(word, 0, length), counts[i] + 1, counts[i]);
+		slots[findSlot(hash)] = i + 1;
+		siftDown(0);
+	}
+
+	private void set(int i, long hash, String word, long count, long error)
+	{
+		hashes[i] = hash;
+		words[i] = word;
+		counts[i] = count;
+		errors[i] = error;
+	}
+
+	/** Return the n words with the largest counts, the largest first
+	 * @param n The number of words to return
+	 * @return at most n words with their counts
+	 */
+	public List<WordCount> getTopWords(int n)
+	{
+		List<WordCount> top = new ArrayList<WordCount>(size);
+		for (int i = 0; i < size; i++) {
+			top.add(new WordCount(words[i], counts[i], errors[i]));
+		}
+		Collections.sort(top, (a, b) -> Long.compare(b.count, a.count));
+		return top.subList(0, Math.min(n, top.size()));
+	}
+
+	/** Return the number of words added */
+	public long getNumWords()
+	{
+		return numWords;
+	}
+
+	/** Return the number of counters */
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	@Override
+	public SpaceSavingSketch newEmpty()
+	{
+		return new SpaceSavingSketch(capacity);
+	}
+
+	@Override
+	public void merge(WordCollector collector)
+	{
+		if (!(collector instanceof SpaceSavingSketch) || ((SpaceSavingSketch) collector).capacity != capacity) {
+			throw new IllegalArgumentException("Cannot merge " + collector + " into " + this);
+		}
+		SpaceSavingSketch other = (SpaceSavingSketch) collector;
+		// a word without a counter in a full sketch occurred at most its smallest count times
+		long minThis = size == capacity ? counts[heap[0]] : 0;
+		long minOther = other.size == other.capacity ? other.counts[other.heap[0]] : 0;
+
+		List<WordCount> merged = new ArrayList<WordCount>(size + other.size);
+		List<Long> mergedHashes = new ArrayList<Long>(size + other.size);
+		Map<Long, Integer> otherCounters = new HashMap<Long, Integer>();
+		for (int j = 0; j < other.size; j++) {
+			otherCounters.put(other.hashes[j], j);
+		}
+		for (int i = 0; i < size; i++) {
+			Integer j = otherCounters.remove(hashes[i]);
+			long count = counts[i] + (j == null ? minOther : other.counts[j]);
+			long error = errors[i] + (j == null ? minOther : other.errors[j]);
+			merged.add(new WordCount(words[i], count, error));
+			mergedHashes.add(hashes[i]);
+		}
+		for (int j : otherCounters.values()) {
+			merged.add(new WordCount(other.words[j], other.counts[j] + minThis, other.errors[j] + minThis));
+			mergedHashes.add(other.hashes[j]);
+		}
+
+		// keep the largest counts
+		Integer[] order = new Integer[merged.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(merged.get(b).count, merged.get(a).count));
+		Arrays.fill(slots, 0);
+		size = Math.min(capacity, order.length);
+		for (int i = 0; i < size; i++) {
+			WordCount entry = merged.get(order[i]);
+			long hash = mergedHashes.get(order[i]);
+			set(i, hash, entry.word, entry.count, entry.error);
+			slots[findSlot(hash)] = i + 1;
+			// sorted largest first, so the heap is built from the end
+			heap[size - 1 - i] = i;
+			heapIndex[i] = size - 1 - i;
+		}
+		numWords += other.numWords;
+	}
+
+	/** Return the slot holding hash, or the empty slot where it belongs */
+	private int findSlot(long hash)
+	{
+		int mask = slots.length - 1;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (slots[slot] != 0 && hashes[slots[slot] - 1] != hash) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/** Remove hash from the table, moving back the entries after it so
+	 * they can still be found */
+	private void removeSlot(long hash)
+	{
+		int mask = slots.length - 1;
+		int hole = findSlot(hash);
+		slots[hole] = 0;
+		for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			long h = hashes[slots[slot] - 1];
+			int home = (int) (h ^ (h >>> 32)) & mask;
+			// move the entry into the hole unless its home is between the hole and it
+			if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+				slots[hole] = slots[slot];
+				slots[slot] = 0;
+				hole = slot;
+			}
+		}
+	}
+
+	private void siftUp(int k)
+	{
+		int i = heap[k];
+		while (k > 0) {
+			int parent = (k - 1) / 2;
+			if (counts[heap[parent]] <= counts[i]) {
+				break;
+			}
+			heap[k] = heap[parent];
+			heapIndex[heap[k]] = k;
+			k = parent;
+		}
+		heap[k] = i;
+		heapIndex[i] = k;
+	}
+
+	private void siftDown(int k)
+	{
+		int i = heap[k];
+		while (2 * k + 1 < size) {
+			int child = 2 * k + 1;
+			if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+				child++;
+			}
+			if (counts[i] <= counts[heap[child]]) {
+				break;
+			}
+			heap[k] = heap[child];
+			heapIndex[heap[k]] = k;
+			k = child;
+		}
+		heap[k] = i;
+		heapIndex[i] = k;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SpaceSavingSketch(capacity " + capacity + ", " + numWords + " words)";
+	}
+
+	// Compares the top words of War and Peace with their exact counts, also when merged
+	public static void main(String[] args)
+	{
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		Map<String, Long> exact = new HashMap<String, Long>();
+		for (String word : new BasicDocument(text).getTokens("[a-zA-Z]+")) {
+			exact.merge(word.toLowerCase(), 1L, Long::sum);
+		}
+
+		int n = 20;
+		SpaceSavingSketch single = new SpaceSavingSketch(1000);
+		new EfficientDocument(text, single);
+		SpaceSavingSketch parallel = new SpaceSavingSketch(1000);
+		new ParallelDocument(text, java.util.concurrent.ForkJoinPool.commonPool(), 1 << 16, parallel);
+
+		boolean passed = single.getNumWords() == parallel.getNumWords();
+		for (SpaceSavingSketch sketch : new SpaceSavingSketch[] { single, parallel }) {
+			List<WordCount> top = sketch.getTopWords(n);
+			System.out.println(top);
+			for (WordCount entry : top) {
+				long count = exact.get(entry.getWord());
+				// the true count is within the error of the estimate
+				passed &= count <= entry.getCount() && entry.getCount() - entry.getError() <= count;
+			}
+		}
+		System.out.println(passed ? "passed." : "FAILED.");
+	}
+
+}
@@ -0,0 +1,188 @@
+package document;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A text document that is read from a Reader or a channel instead of being held
+ * in memory.  It does one pass over the input through a fixed size buffer, counting
+ * the number of syllables, words and sentences, and then stores those values.
+ * The text itself is not kept, so memory use does not grow with the size of the input.
+ * For the same reason it is not a Document: it gives the counts of the text, but
+ * not the text or its tokens.
+ *
+ * The counts are exactly the same as those of an EfficientDocument over the same text,
+ * also for words and sentence-ending punctuation that span two buffer fills.
+ */
+public class StreamingDocument implements TextCounts {
+
+	/** The default number of chars read from the input at a time */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private long numWords;  // The number of words in the document
+	private long numSentences;  // The number of sentences in the document
+	private long numSyllables;  // The number of syllables in the document
+	private long numLetters;  // The number of letters in the words of the document
+	private long numPolysyllables;  // The number of words with three or more syllables
+
+	/** Create a new StreamingDocument by reading the reader to its end.
+	 * The reader is not closed.
+	 * @param reader The reader supplying the text of the document
+	 * @throws IOException if reading fails
+	 */
+	public StreamingDocument(Reader reader) throws IOException
+	{
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/** Create a new StreamingDocument by reading the reader to its end,
+	 * bufferSize chars at a time.  The reader is not closed.
+	 * @param reader The reader supplying the text of the document
+	 * @param bufferSize The number of chars to read at a time
+	 * @throws IOException if reading fails
+	 */
+	public StreamingDocument(Reader reader, int bufferSize) throws IOException
+	{
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+		}
+		processText(reader, new char[bufferSize]);
+	}
+
+	/** Create a new StreamingDocument by reading the channel to its end, decoding
+	 * the bytes with the given charset.  Malformed input is replaced, the same way
+	 * an InputStreamReader does.  The channel is not closed.
+	 * @param channel The channel supplying the encoded text of the document
+	 * @param charset The charset the text is encoded with
+	 * @throws IOException if reading fails
+	 */
+	public StreamingDocument(ReadableByteChannel channel, Charset charset) throws IOException
+	{
+		this(Channels.newReader(channel, charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE), DEFAULT_BUFFER_SIZE));
+	}
+
+
+    /** Passes through the input one time, one buffer at a time, to count the number
+     * of words, syllables and sentences, and set the member variables appropriately.
+     * The scanner keeps its state between buffers, so tokens cut by a buffer
+     * boundary are counted correctly.
+     */
+	private void processText(Reader reader, char[] buf) throws IOException
+	{
+		long startTime = System.nanoTime();
+		DocumentScanner scanner = new DocumentScanner();
+		int n;
+		while ((n = reader.read(buf, 0, buf.length)) != -1) {
+			scanner.scan(buf, 0, n);
+		}
+		DocumentMetrics.recordScan(scanner.getNumCharacters(), System.nanoTime() - startTime);
+
+		numWords = scanner.getNumWords();
+		numSentences = scanner.getNumSentences();
+		numSyllables = scanner.getNumSyllables();
+		numLetters = scanner.getNumLetters();
+		numPolysyllables = scanner.getNumPolysyllables();
+	}
+
+	/**
+	 * Get the number of sentences in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the StreamingDocument object.
+	 *
+	 * @return The number of sentences in the document.
+	 */
+	@Override
+	public long getNumSentences() {
+		return numSentences;
+	}
+
+	/**
+	 * Get the number of words in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the StreamingDocument object.
+	 *
+	 * @return The number of words in the document.
+	 */
+	@Override
+	public long getNumWords() {
+		return numWords;
+	}
+
+	/**
+	 * Get the total number of syllables in the document, as defined by EfficientDocument.
+	 * This method returns information already stored in the StreamingDocument object.
+	 *
+	 * @return The number of syllables in the document.
+	 */
+	@Override
+	public long getNumSyllables() {
+		return numSyllables;
+	}
+
+	/**
+	 * Get the number of letters (a-z or A-Z) in the words of the document.
+	 * This method returns information already stored in the StreamingDocument object.
+	 *
+	 * @return The number of letters in the document.
+	 */
+	@Override
+	public long getNumLetters() {
+		return numLetters;
+	}
+
+	/**
+	 * Get the number of polysyllabic words in the document, i.e. words
+	 * with three or more syllables.
+	 * This method returns information already stored in the StreamingDocument object.
+	 *
+	 * @return The number of polysyllabic words in the document.
+	 */
+	@Override
+	public long getNumPolysyllables() {
+		return numPolysyllables;
+	}
+
+	/** Return true if doc has the same counts as an EfficientDocument over text */
+	private static boolean matches(TextCounts doc, String text)
+	{
+		EfficientDocument expected = new EfficientDocument(text);
+		boolean passed = doc.getNumWords() == expected.getNumWords()
+				&& doc.getNumSentences() == expected.getNumSentences()
+				&& doc.getNumSyllables() == expected.getNumSyllables();
+		System.out.println((passed ? "passed: " : "FAILED: ") + doc.getNumSyllables() + " "
+				+ doc.getNumWords() + " " + doc.getNumSentences());
+		return passed;
+	}
+
+	// Can be used for testing
+	public static void main(String[] args) throws IOException
+	{
+		String[] texts = {
+			"This is a test.  How many???  Senteeeeeeeeeences are here... there should be 5!  Right?",
+			"",
+			"sentence, with, lots, of, commas.!  (And some poaren)).  The output is: 7.5.",
+			"many???  Senteeeeeeeeeences are",
+			"Segue",
+			"Sentences?!",
+		};
+		// small buffers cut words and punctuation runs at every possible place
+		for (String text : texts) {
+			for (int bufferSize = 1; bufferSize <= 4; bufferSize++) {
+				matches(new StreamingDocument(new StringReader(text), bufferSize), text);
+			}
+		}
+
+		String textfile = "data/warAndPeace.txt";
+		try (FileInputStream in = new FileInputStream(textfile)) {
+			StreamingDocument doc = new StreamingDocument(in.getChannel(), Charset.defaultCharset());
+			matches(doc, DocumentBenchmarking.getStringFromFile(textfile, Integer.MAX_VALUE));
+		}
+	}
+
+}
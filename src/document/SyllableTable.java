@@ -0,0 +1,272 @@
+package document;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * A table of precomputed syllable counts for the words of a dictionary file.  A
+ * BasicDocument created with a table looks words up in it before it falls back
+ * to counting vowels; no document uses a table unless it is given one.
+ *
+ * The words are packed into one char array and found through an open addressing
+ * hash table that is at most half full, so a lookup usually needs a single probe.
+ * Lookups ignore case without creating a lower case copy of the word.  Only words
+ * made of the letters a-z and A-Z are stored, and their counts are computed with
+ * the same rules as Document.countSyllables, so using the table never changes a count.
+ */
+public class SyllableTable {
+
+	private char[] chars;  		// the lower case letters of all words, one after the other
+	private int[] offsets;  	// word i is chars[offsets[i]] to chars[offsets[i + 1]]
+	private byte[] syllables;  	// the syllable count of each word
+	private int[] slots;  		// hash table of word index + 1, 0 for an empty slot
+	private int size;  			// the number of words in the table
+
+	/** Create a new, empty SyllableTable */
+	public SyllableTable()
+	{
+		chars = new char[1024];
+		offsets = new int[65];
+		syllables = new byte[64];
+		slots = new int[128];
+	}
+
+	/** Build a table from a dictionary file with one word per line
+	 * @param filename The dictionary file
+	 * @return the table
+	 * @throws IOException if the file cannot be read
+	 */
+	public static SyllableTable load(String filename) throws IOException
+	{
+		SyllableTable table = new SyllableTable();
+		try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+			String word;
+			while ((word = reader.readLine()) != null) {
+				table.add(word);
+			}
+		}
+		return table;
+	}
+
+	/** Add a word and its syllable count to the table.  Words that contain
+	 * anything other than the letters a-z and A-Z are ignored.
+	 * @param word The word to add
+	 * @return true if the word was added (it was valid and not already there)
+	 */
+	public boolean add(String word)
+	{
+		if (word.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (!DocumentScanner.isLetter(word.charAt(i))) {
+				return false;
+			}
+		}
+		if (lookup(word) >= 0) {
+			return false;
+		}
+
+		if ((size + 1) * 2 > slots.length) {
+			rehash(slots.length * 2);
+		}
+		if (size + 1 == syllables.length) {
+			syllables = Arrays.copyOf(syllables, syllables.length * 2);
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		}
+		int start = offsets[size];
+		if (start + word.length() > chars.length) {
+			chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + word.length()));
+		}
+		for (int i = 0; i < word.length(); i++) {
+			chars[start + i] = toLower(word.charAt(i));
+		}
+		offsets[size + 1] = start + word.length();
+		syllables[size] = (byte) Math.min(Document.countSyllablesByRule(word), Byte.MAX_VALUE);
+
+		insertSlot(size, hash(word, 0, word.length()));
+		size++;
+		return true;
+	}
+
+	/** Return the number of syllables of the word, ignoring case, or -1 if the
+	 * word is not in the table
+	 * @param word The word to look up
+	 * @return the syllable count, or -1 if the word is unknown
+	 */
+	public int lookup(CharSequence word)
+	{
+		return lookup(word, 0, word.length());
+	}
+
+	/** Return the number of syllables of the word, ignoring case, or -1 if the
+	 * word is not in the table.  This is the same as lookup(CharSequence), with
+	 * the characters read straight from the String.
+	 * @param word The word to look up
+	 * @return the syllable count, or -1 if the word is unknown
+	 */
+	public int lookup(String word)
+	{
+		int length = word.length();
+		int h = 0;
+		for (int i = 0; i < length; i++) {
+			h = 31 * h + toLower(word.charAt(i));
+		}
+		int mask = slots.length - 1;
+		for (int slot = (h ^ (h >>> 16)) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			int index = slots[slot] - 1;
+			int wordStart = offsets[index];
+			if (offsets[index + 1] - wordStart == length && matches(wordStart, word, length)) {
+				return syllables[index];
+			}
+		}
+		return -1;
+	}
+
+	/** Return the number of syllables of the word text[start..end), ignoring case,
+	 * or -1 if the word is not in the table
+	 * @param text The text containing the word
+	 * @param start The index of the first character of the word
+	 * @param end The index after the last character of the word
+	 * @return the syllable count, or -1 if the word is unknown
+	 */
+	public int lookup(CharSequence text, int start, int end)
+	{
+		int mask = slots.length - 1;
+		for (int slot = hash(text, start, end) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			int index = slots[slot] - 1;
+			if (matches(index, text, start, end)) {
+				return syllables[index];
+			}
+		}
+		return -1;
+	}
+
+	/** Return the number of words in the table */
+	public int size()
+	{
+		return size;
+	}
+
+	/** Return true if word index equals text[start..end), ignoring case */
+	private boolean matches(int index, CharSequence text, int start, int end)
+	{
+		int wordStart = offsets[index];
+		if (offsets[index + 1] - wordStart != end - start) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (chars[wordStart + i - start] != toLower(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Return true if the length chars from wordStart equal word, ignoring case */
+	private boolean matches(int wordStart, String word, int length)
+	{
+		for (int i = 0; i < length; i++) {
+			if (chars[wordStart + i] != toLower(word.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Lower case a letter a-z or A-Z, leaving any other character unchanged */
+	private static char toLower(char c)
+	{
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	/** Case insensitive hash of text[start..end) */
+	private static int hash(CharSequence text, int start, int end)
+	{
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + toLower(text.charAt(i));
+		}
+		// spread the high bits, since the table size is a power of two
+		return h ^ (h >>> 16);
+	}
+
+	/** Put word index into the first free slot from hash on */
+	private void insertSlot(int index, int hash)
+	{
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = index + 1;
+	}
+
+	/** Grow the hash table to the given power of two capacity */
+	private void rehash(int capacity)
+	{
+		slots = new int[capacity];
+		CharSequence all = CharBuffer.wrap(chars);
+		for (int i = 0; i < size; i++) {
+			insertSlot(i, hash(all, offsets[i], offsets[i + 1]));
+		}
+	}
+
+	// Prints the hit rate of a table of data/dict.txt on War and Peace and the
+	// time it saves a BasicDocument
+	public static void main(String[] args) throws IOException
+	{
+		final double CONVERSION_FACTOR = 1000000000.0;
+		int trials = 30;
+
+		long startTime = System.nanoTime();
+		SyllableTable table = load("data/dict.txt");
+		System.out.println("Loaded " + table.size() + " words in "
+				+ (System.nanoTime() - startTime) / CONVERSION_FACTOR + " s");
+
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		BasicDocument doc = new BasicDocument(text);
+		BasicDocument withTable = new BasicDocument(text, table);
+		String[] words = doc.getTokens("[a-zA-Z]+").toArray(new String[0]);
+
+		int hits = 0;
+		for (String word : words) {
+			if (table.lookup(word) >= 0) {
+				hits++;
+			}
+		}
+		System.out.println("Hit rate: " + hits + " of " + words.length + " words ("
+				+ (100.0 * hits / words.length) + "%)");
+
+		// run each a few times first so both are compiled before timing
+		long total = 0;
+		double timeTable = 0;
+		double timeRule = 0;
+		for (int round = 0; round < 3; round++) {
+			startTime = System.nanoTime();
+			for (int i = 0; i < trials; i++) {
+				for (String word : words) {
+					total += withTable.countSyllables(word);
+				}
+			}
+			timeTable = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+			startTime = System.nanoTime();
+			for (int i = 0; i < trials; i++) {
+				for (String word : words) {
+					total -= doc.countSyllables(word);
+				}
+			}
+			timeRule = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+		}
+		System.out.println("TableTime\t RuleTime\t Speedup");
+		System.out.println(timeTable + "\t" + timeRule + "\t" + (timeRule / timeTable));
+		if (total != 0) {
+			System.out.println("Counts differ between the table and the rule!");
+		}
+	}
+
+}
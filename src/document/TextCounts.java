@@ -0,0 +1,44 @@
+package document;
+
+/**
+ * The counts of a text that readability scores are computed from, for a text that
+ * is counted in one pass and not kept, such as a stream, a memory-mapped file or a
+ * live transcript.  Such a text cannot be read again, so unlike a Document it only
+ * gives its counts, never its text or tokens.
+ *
+ * The counts are longs, since the text may be much larger than a String.
+ */
+public interface TextCounts {
+
+	/** Return the number of words in the text, as defined by EfficientDocument */
+	long getNumWords();
+
+	/** Return the number of sentences in the text, as defined by EfficientDocument */
+	long getNumSentences();
+
+	/** Return the number of syllables in the text, as defined by EfficientDocument */
+	long getNumSyllables();
+
+	/** Return the number of letters (a-z or A-Z) in the words of the text */
+	long getNumLetters();
+
+	/** Return the number of words with three or more syllables in the text */
+	long getNumPolysyllables();
+
+	/** Return the Flesch readability score of the text, the same as
+	 * Document.getFleschScore would give for it */
+	default double getFleschScore()
+	{
+		return getScore(ReadabilityIndex.FLESCH_READING_EASE);
+	}
+
+	/** Return a readability index of the text
+	 * @param index The readability index to compute
+	 * @return the value of the index for the text
+	 */
+	default double getScore(ReadabilityIndex index)
+	{
+		return index.score(this);
+	}
+
+}
@@ -0,0 +1,24 @@
+package document;
+
+/**
+ * Collects the tokens a DocumentScanner finds during its single pass: the words
+ * and the runs of sentence-ending punctuation, with their offsets and the counts
+ * of the text up to their end.  SentenceIndex uses one to score any range of the
+ * text without scanning it again.
+ *
+ * A token is passed when the character after it is scanned, or by flushWord at
+ * the end of the text.  Unlike WordCollectors, token collectors are not merged,
+ * since the offsets of a part of the text depend on the text before it.
+ */
+public interface TokenCollector {
+
+	/** Add the next token of the text
+	 * @param start The offset of the first character of the token, counted from
+	 *   the first character the scanner scanned
+	 * @param end The offset after the last character of the token
+	 * @param isWord true for a word, false for a run of sentence-ending punctuation
+	 * @param counts The scanner, whose counts include the token
+	 */
+	void addToken(long start, long end, boolean isWord, DocumentScanner counts);
+
+}
@@ -0,0 +1,219 @@
+package document;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An index of the tokens of a text, built in one pass and shared by everything
+ * that needs to tokenize the same version of the text.  Tokens are stored as start
+ * and end offsets (and a type tag) in primitive arrays over the original text, so
+ * going through them does not create a String per token.
+ *
+ * The index holds three views of the text, one for each way it is tokenized:
+ *   - readability tokens: runs of the letters a-z, A-Z (type WORD) and runs of
+ *     sentence-ending punctuation . ! ? (type SENTENCE_END), as used by Document
+ *   - spelling tokens: runs of word characters, apostrophes and hyphens, the same
+ *     as the regular expression "[\w'-]+" used for spell checking
+ *   - whitespace tokens: runs of characters other than whitespace, the same as the
+ *     pieces of String.split("\\s+") used for Markov text generation
+ */
+public class TokenIndex {
+
+	/** The type of a token that is a word */
+	public static final int WORD = 0;
+
+	/** The type of a readability token that is a run of sentence-ending punctuation */
+	public static final int SENTENCE_END = 1;
+
+	/**
+	 * The tokens of one view of the text, in order.  Token i covers the
+	 * characters from start(i) (inclusive) to end(i) (exclusive) of the text.
+	 */
+	public static class Tokens {
+		private final CharSequence text;
+		private int[] starts;
+		private int[] ends;
+		private byte[] types;
+		private int size;
+
+		private Tokens(CharSequence text)
+		{
+			this.text = text;
+			starts = new int[16];
+			ends = new int[16];
+			types = new byte[16];
+		}
+
+		private void add(int start, int end, int type)
+		{
+			if (size == starts.length) {
+				int capacity = size + (size >> 1);
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				types = Arrays.copyOf(types, capacity);
+			}
+			starts[size] = start;
+			ends[size] = end;
+			types[size] = (byte) type;
+			size++;
+		}
+
+		/** Return the number of tokens */
+		public int size()
+		{
+			return size;
+		}
+
+		/** Return the index in the text of the first character of token i */
+		public int start(int i)
+		{
+			checkIndex(i);
+			return starts[i];
+		}
+
+		/** Return the index in the text after the last character of token i */
+		public int end(int i)
+		{
+			checkIndex(i);
+			return ends[i];
+		}
+
+		/** Return the type of token i, WORD or SENTENCE_END */
+		public int type(int i)
+		{
+			checkIndex(i);
+			return types[i];
+		}
+
+		/** Return token i as a String.  This creates a new String, so use start
+		 * and end instead where the characters can be read from the text. */
+		public String getString(int i)
+		{
+			checkIndex(i);
+			return text.subSequence(starts[i], ends[i]).toString();
+		}
+
+		/** Return a stream of the tokens as Strings, in order.  It knows its size,
+		 * and a parallel stream splits it evenly by token number. */
+		public Stream<String> stream()
+		{
+			return StreamSupport.stream(new TokenSpliterator(this, 0, size), false);
+		}
+
+		private void checkIndex(int i)
+		{
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException("Token " + i + " of " + size);
+			}
+		}
+	}
+
+	private final CharSequence text;
+	private final Tokens readabilityTokens;
+	private final Tokens spellingTokens;
+	private final Tokens whitespaceTokens;
+
+	/** Build the index of a text.  The text must not change while the index is used.
+	 * @param text The text to index
+	 */
+	public TokenIndex(CharSequence text)
+	{
+		this.text = text;
+		readabilityTokens = new Tokens(text);
+		spellingTokens = new Tokens(text);
+		whitespaceTokens = new Tokens(text);
+		build();
+	}
+
+	/** Pass through the text once, keeping track of the open token of each view */
+	private void build()
+	{
+		int length = text.length();
+		int readabilityStart = -1;
+		int readabilityType = WORD;
+		int spellingStart = -1;
+		int whitespaceStart = -1;
+
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+
+			int type = DocumentScanner.isLetter(c) ? WORD : DocumentScanner.isSentenceEnd(c) ? SENTENCE_END : -1;
+			if (readabilityStart >= 0 && type != readabilityType) {
+				readabilityTokens.add(readabilityStart, i, readabilityType);
+				readabilityStart = -1;
+			}
+			if (readabilityStart < 0 && type >= 0) {
+				readabilityStart = i;
+				readabilityType = type;
+			}
+
+			if (isSpellingChar(c)) {
+				if (spellingStart < 0) {
+					spellingStart = i;
+				}
+			}
+			else if (spellingStart >= 0) {
+				spellingTokens.add(spellingStart, i, WORD);
+				spellingStart = -1;
+			}
+
+			if (!isWhitespace(c)) {
+				if (whitespaceStart < 0) {
+					whitespaceStart = i;
+				}
+			}
+			else if (whitespaceStart >= 0) {
+				whitespaceTokens.add(whitespaceStart, i, WORD);
+				whitespaceStart = -1;
+			}
+		}
+
+		if (readabilityStart >= 0) {
+			readabilityTokens.add(readabilityStart, length, readabilityType);
+		}
+		if (spellingStart >= 0) {
+			spellingTokens.add(spellingStart, length, WORD);
+		}
+		if (whitespaceStart >= 0) {
+			whitespaceTokens.add(whitespaceStart, length, WORD);
+		}
+	}
+
+	/** Return true if c matches [\w'-], i.e. [a-zA-Z_0-9'-] */
+	private static boolean isSpellingChar(char c)
+	{
+		return DocumentScanner.isLetter(c) || (c >= '0' && c <= '9') || c == '_' || c == '\'' || c == '-';
+	}
+
+	/** Return true if c matches \s, i.e. [ \t\n\x0B\f\r] */
+	private static boolean isWhitespace(char c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	/** Return the text this index was built from */
+	public CharSequence getText()
+	{
+		return text;
+	}
+
+	/** Return the words and sentence-ending punctuation runs used to compute readability */
+	public Tokens getReadabilityTokens()
+	{
+		return readabilityTokens;
+	}
+
+	/** Return the tokens matching "[\w'-]+", used for spell checking */
+	public Tokens getSpellingTokens()
+	{
+		return spellingTokens;
+	}
+
+	/** Return the tokens separated by whitespace, used for Markov text generation */
+	public Tokens getWhitespaceTokens()
+	{
+		return whitespaceTokens;
+	}
+
+}
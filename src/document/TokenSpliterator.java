@@ -0,0 +1,160 @@
+package document;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * A Spliterator over the readability tokens of a text, the same tokens as
+ * getTokens("[!?.]+|[a-zA-Z]+") of a Document: runs of letters (words) and runs
+ * of sentence-ending punctuation.  Each token String is only built when it is
+ * reached, so a stream of the tokens never holds all of them.
+ *
+ * A spliterator over plain text finds the tokens as it goes.  It splits its range
+ * in two at a separator character (neither a letter nor punctuation) near the
+ * middle, so no token is cut, and it is ORDERED but not SIZED, since the number
+ * of tokens is not known before the text is scanned.  A spliterator over the
+ * tokens of a TokenIndex knows where every token is, so it splits by token
+ * number and is also SIZED and SUBSIZED.
+ */
+class TokenSpliterator implements Spliterator<String> {
+
+	// ranges shorter than this are not split
+	private static final int MIN_SPLIT = 1 << 12;
+
+	// the average number of characters per token, to estimate the number of tokens
+	private static final int CHARS_PER_TOKEN = 5;
+
+	private final CharSequence text;
+	private final TokenIndex.Tokens tokens;  // null to find the tokens in the text
+	private int position;  					// the next character, or the next token
+	private int end;  						// the end of the range, in characters or tokens
+
+	/** Create a spliterator over the tokens of text[start..end).  The text must
+	 * not start or end inside a token. */
+	TokenSpliterator(CharSequence text, int start, int end)
+	{
+		this.text = text;
+		this.tokens = null;
+		this.position = start;
+		this.end = end;
+	}
+
+	/** Create a spliterator over tokens start (inclusive) to end (exclusive) */
+	TokenSpliterator(TokenIndex.Tokens tokens, int start, int end)
+	{
+		this.text = null;
+		this.tokens = tokens;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action)
+	{
+		if (tokens != null) {
+			if (position >= end) {
+				return false;
+			}
+			action.accept(tokens.getString(position++));
+			return true;
+		}
+
+		// skip to the start of the next token
+		while (position < end && DocumentScanner.isSeparator(text.charAt(position))) {
+			position++;
+		}
+		if (position >= end) {
+			return false;
+		}
+		int start = position;
+		boolean word = DocumentScanner.isLetter(text.charAt(position));
+		position++;
+		while (position < end && (word ? DocumentScanner.isLetter(text.charAt(position))
+				: DocumentScanner.isSentenceEnd(text.charAt(position)))) {
+			position++;
+		}
+		action.accept(text.subSequence(start, position).toString());
+		return true;
+	}
+
+	@Override
+	public Spliterator<String> trySplit()
+	{
+		if (tokens != null) {
+			if (end - position < 2) {
+				return null;
+			}
+			int middle = position + (end - position) / 2;
+			TokenSpliterator prefix = new TokenSpliterator(tokens, position, middle);
+			position = middle;
+			return prefix;
+		}
+
+		if (end - position < MIN_SPLIT) {
+			return null;
+		}
+		int split = position + (end - position) / 2;
+		while (split < end && !DocumentScanner.isSeparator(text.charAt(split))) {
+			split++;
+		}
+		if (split == end) {
+			return null;
+		}
+		TokenSpliterator prefix = new TokenSpliterator(text, position, split);
+		position = split;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize()
+	{
+		return tokens != null ? end - position : (end - position) / CHARS_PER_TOKEN;
+	}
+
+	@Override
+	public int characteristics()
+	{
+		int characteristics = ORDERED | NONNULL;
+		if (tokens != null) {
+			characteristics |= SIZED | SUBSIZED;
+		}
+		return characteristics;
+	}
+
+	// Checks the streams of War and Peace against getTokens, in order
+	public static void main(String[] args)
+	{
+		String text = DocumentBenchmarking.getStringFromFile("data/warAndPeace.txt", Integer.MAX_VALUE);
+		EfficientDocument doc = new EfficientDocument(text);
+		List<String> expected = doc.getTokens("[!?.]+|[a-zA-Z]+");
+		TokenIndex index = new TokenIndex(text);
+
+		boolean passed = doc.tokenStream().collect(Collectors.toList()).equals(expected);
+		passed &= doc.tokenStream().parallel().collect(Collectors.toList()).equals(expected);
+		passed &= index.getReadabilityTokens().stream().parallel().collect(Collectors.toList()).equals(expected);
+		passed &= index.getReadabilityTokens().stream().count() == expected.size();
+		System.out.println(passed ? "passed." : "FAILED.");
+
+		final double CONVERSION_FACTOR = 1000000000.0;
+		System.out.println("Threads\t getTokens\t tokenStream");
+		System.out.print(ForkJoinPool.commonPool().getParallelism() + 1 + "\t");
+		long startTime = System.nanoTime();
+		long words = 0;
+		for (int i = 0; i < 10; i++) {
+			words += doc.getTokens("[!?.]+|[a-zA-Z]+").stream().filter(t -> t.length() > 6).count();
+		}
+		System.out.print((System.nanoTime() - startTime) / CONVERSION_FACTOR + "\t");
+		startTime = System.nanoTime();
+		for (int i = 0; i < 10; i++) {
+			words -= doc.tokenStream().parallel().filter(t -> t.length() > 6).count();
+		}
+		System.out.println((System.nanoTime() - startTime) / CONVERSION_FACTOR);
+		if (words != 0) {
+			System.out.println("Counts differ!");
+		}
+	}
+
+}
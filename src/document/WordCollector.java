@@ -0,0 +1,34 @@
+package document;
+
+/**
+ * A statistic over the words of a text that a DocumentScanner collects during
+ * its single pass, such as SpaceSavingSketch (the most frequent words) or
+ * HyperLogLog (the number of distinct words).
+ *
+ * The scanner passes each word once, as soon as it ends, in lower case and
+ * together with a 64 bit hash of it, so a collector does not need to build a
+ * String for each word.  Collectors of parts of a text can be merged, so a text
+ * can be collected in parallel chunks (see ParallelDocument).
+ */
+public interface WordCollector {
+
+	/** Add one occurrence of a word
+	 * @param word The lower case letters of the word, in word[0] to word[length - 1].
+	 *   Only the first DocumentScanner.MAX_WORD_LENGTH letters of a longer word are given.
+	 * @param length The number of letters in word
+	 * @param hash A 64 bit hash of all the letters of the word
+	 */
+	void addWord(char[] word, int length, long hash);
+
+	/** Return a new, empty collector with the same settings as this one,
+	 * to collect another part of the text */
+	WordCollector newEmpty();
+
+	/** Add everything collected by another collector with the same settings
+	 * (one made by newEmpty) to this one
+	 * @param other The collector to merge into this one
+	 * @throws IllegalArgumentException if other does not have the same class and settings
+	 */
+	void merge(WordCollector other);
+
+}
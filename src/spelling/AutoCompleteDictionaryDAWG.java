@@ -0,0 +1,421 @@
+package spelling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A Dictionary and AutoComplete implementation that stores its words in a minimal
+ * DAWG (directed acyclic word graph): a trie in which equal subtrees are shared,
+ * so common suffixes such as "ing" or "'s" are stored once instead of once per word.
+ *
+ * Words added in sorted order are inserted with the incremental algorithm of
+ * Daciuk et al.: once a word is added, the nodes of the previous word that are not
+ * on the new word's path can no longer change, so they are replaced by an equal
+ * node already in the graph, or registered as a new one.  The graph stays minimal
+ * (apart from the path of the last word) without ever being built as a full trie.
+ *
+ * Words added out of order are kept aside, and the graph is rebuilt from all the
+ * words the next time it is searched.  Loading a sorted word list costs nothing
+ * extra, and an unsorted list costs one rebuild.
+ *
+ * Nodes keep their out-going characters in a sorted char array with a parallel
+ * array of children, so there are no boxed Characters or maps.
+ */
+public class AutoCompleteDictionaryDAWG implements Dictionary, AutoComplete {
+
+	/** A node of the graph.  Its children are sorted by character. */
+	private static class Node {
+		private static final char[] NO_LABELS = new char[0];
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private char[] labels = NO_LABELS;
+		private Node[] children = NO_CHILDREN;
+		private boolean isWord;
+
+		/** Return the child reached by c, or null if there is none */
+		Node getChild(char c)
+		{
+			int i = Arrays.binarySearch(labels, c);
+			return i >= 0 ? children[i] : null;
+		}
+
+		/** Add a child after all the existing ones.  c must be greater than their characters. */
+		void addLast(char c, Node child)
+		{
+			int n = labels.length;
+			labels = Arrays.copyOf(labels, n + 1);
+			children = Arrays.copyOf(children, n + 1);
+			labels[n] = c;
+			children[n] = child;
+		}
+
+		/** Nodes are equal if they accept the same suffixes, which (as their
+		 * children are already unique) means the same labels to the same children */
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) o;
+			if (isWord != other.isWord || !Arrays.equals(labels, other.labels)) {
+				return false;
+			}
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] != other.children[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int h = isWord ? 1 : 0;
+			for (int i = 0; i < labels.length; i++) {
+				h = 31 * (31 * h + labels[i]) + System.identityHashCode(children[i]);
+			}
+			return h;
+		}
+	}
+
+	private Node root;
+	private int size;
+	private int numNodes;
+
+	// The canonical node for each set of suffixes, for nodes that can no longer change
+	private HashMap<Node, Node> register;
+
+	// The path of the last word added in order: path[i] is reached by its first i chars
+	private char[] lastWord;
+	private int lastLength;
+	private Node[] path;
+
+	// Words added out of order, not yet in the graph
+	private TreeSet<String> pending;
+
+	/** Create a new, empty dictionary */
+	public AutoCompleteDictionaryDAWG()
+	{
+		clear();
+	}
+
+	/** Remove all the words */
+	private void clear()
+	{
+		root = new Node();
+		size = 0;
+		numNodes = 1;
+		register = new HashMap<Node, Node>();
+		lastWord = new char[16];
+		lastLength = 0;
+		path = new Node[17];
+		path[0] = root;
+		pending = new TreeSet<String>();
+	}
+
+	/** Add this word to the dictionary.  Words are stored in lower case.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there).
+	 */
+	@Override
+	public boolean addWord(String word)
+	{
+		String lower = CharRange.toLowerCase(word);
+		if (lower.isEmpty()) {
+			// the root is never shared, so it can be changed at any time
+			if (root.isWord) {
+				return false;
+			}
+			root.isWord = true;
+			size++;
+			return true;
+		}
+		int order = compareToLast(lower);
+		if (order > 0) {
+			append(lower);
+			size++;
+			return true;
+		}
+		if (order == 0 || contains(lower) || !pending.add(lower)) {
+			return false;
+		}
+		size++;
+		return true;
+	}
+
+	/** Compare word with the last word added in order */
+	private int compareToLast(String word)
+	{
+		int n = Math.min(word.length(), lastLength);
+		for (int i = 0; i < n; i++) {
+			if (word.charAt(i) != lastWord[i]) {
+				return word.charAt(i) - lastWord[i];
+			}
+		}
+		return word.length() - lastLength;
+	}
+
+	/** Add a word that sorts after every word in the graph */
+	private void append(String word)
+	{
+		int length = word.length();
+		int common = 0;
+		while (common < length && common < lastLength && word.charAt(common) == lastWord[common]) {
+			common++;
+		}
+		// the rest of the last word's path is finished
+		freeze(common);
+
+		if (length > lastWord.length) {
+			lastWord = Arrays.copyOf(lastWord, Math.max(length, lastWord.length * 2));
+			path = Arrays.copyOf(path, lastWord.length + 1);
+		}
+		for (int i = common; i < length; i++) {
+			char c = word.charAt(i);
+			Node child = new Node();
+			numNodes++;
+			path[i].addLast(c, child);
+			path[i + 1] = child;
+			lastWord[i] = c;
+		}
+		path[length].isWord = true;
+		lastLength = length;
+	}
+
+	/** Replace or register the nodes of the last word's path below depth */
+	private void freeze(int depth)
+	{
+		for (int i = lastLength; i > depth; i--) {
+			Node node = path[i];
+			Node canonical = register.get(node);
+			if (canonical == null) {
+				register.put(node, node);
+			}
+			else {
+				// node is the last child of its parent
+				Node parent = path[i - 1];
+				parent.children[parent.children.length - 1] = canonical;
+				numNodes--;
+			}
+			path[i] = null;
+		}
+		lastLength = Math.min(lastLength, depth);
+	}
+
+	/** Put the words added out of order into the graph, by building it again */
+	private void update()
+	{
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<String> words = new ArrayList<String>(size);
+		collect(root, new StringBuilder(), words);
+		Iterator<String> added = pending.iterator();
+		clear();
+
+		// merge the two sorted lists
+		String next = added.hasNext() ? added.next() : null;
+		for (String word : words) {
+			while (next != null && next.compareTo(word) < 0) {
+				append(next);
+				size++;
+				next = added.hasNext() ? added.next() : null;
+			}
+			append(word);
+			size++;
+		}
+		while (next != null) {
+			append(next);
+			size++;
+			next = added.hasNext() ? added.next() : null;
+		}
+	}
+
+	/** Add every word below node to words, in sorted order */
+	private static void collect(Node node, StringBuilder prefix, List<String> words)
+	{
+		if (node.isWord) {
+			words.add(prefix.toString());
+		}
+		for (int i = 0; i < node.labels.length; i++) {
+			prefix.append(node.labels[i]);
+			collect(node.children[i], prefix, words);
+			prefix.setLength(prefix.length() - 1);
+		}
+	}
+
+	/** Return true if the lower case word is in the graph */
+	private boolean contains(String word)
+	{
+		Node node = root;
+		for (int i = 0; i < word.length() && node != null; i++) {
+			node = node.getChild(word.charAt(i));
+		}
+		return node != null && node.isWord;
+	}
+
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start..end) a word according to this dictionary?  Searching
+	 * does not need the graph to be rebuilt, but words added out of order
+	 * are looked up as a String. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		Node node = root;
+		for (int i = start; i < end && node != null; i++) {
+			node = node.getChild(Character.toLowerCase(text.charAt(i)));
+		}
+		if (node != null && node.isWord) {
+			return true;
+		}
+		return !pending.isEmpty() && pending.contains(CharRange.toLowerCase(text.subSequence(start, end)));
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/** Return the number of nodes of the graph.  Words added out of order are
+	 * only counted after the next call to predictCompletions. */
+	public int getNumNodes()
+	{
+		return numNodes;
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length, containing the
+	 * numCompletions shortest legal completions of the prefix string.  If the prefix
+	 * itself is a valid word, it is included.  If no word starts with the prefix, it
+	 * returns an empty list.
+	 *
+	 * As nodes are shared, a node does not know the word that leads to it, so the
+	 * breadth first search keeps the text of each node it queues.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		update();
+		String stem = CharRange.toLowerCase(prefix);
+		Node node = root;
+		for (int i = 0; i < stem.length() && node != null; i++) {
+			node = node.getChild(stem.charAt(i));
+		}
+		List<String> completions = new LinkedList<String>();
+		if (node == null) {
+			return completions;
+		}
+
+		Deque<Node> queue = new ArrayDeque<Node>();
+		Deque<String> texts = new ArrayDeque<String>();
+		queue.add(node);
+		texts.add(stem);
+		while (!queue.isEmpty() && completions.size() < numCompletions) {
+			node = queue.removeFirst();
+			String text = texts.removeFirst();
+			if (node.isWord) {
+				completions.add(text);
+			}
+			for (int i = 0; i < node.labels.length; i++) {
+				queue.add(node.children[i]);
+				texts.add(text + node.labels[i]);
+			}
+		}
+		return completions;
+	}
+
+	/** Return the number of distinct nodes of a trie */
+	private static int countNodes(TrieNode node)
+	{
+		int count = 1;
+		for (int i = 0; i < node.getNumChildren(); i++) {
+			count += countNodes(node.getChildAt(i));
+		}
+		return count;
+	}
+
+	/** Return the lengths of the words */
+	private static List<Integer> lengths(List<String> words)
+	{
+		List<Integer> lengths = new ArrayList<Integer>();
+		for (String word : words) {
+			lengths.add(word.length());
+		}
+		return lengths;
+	}
+
+	/** Return the heap in use after a garbage collection */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	// Compares the size of the graph and of the trie for a dictionary file
+	public static void main(String[] args)
+	{
+		final double CONVERSION_FACTOR = 1000000000.0;
+		final double MB = 1024 * 1024;
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+
+		long before = usedMemory();
+		long startTime = System.nanoTime();
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		DictionaryLoader.loadDictionary(trie, dictFile);
+		double trieTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+		long trieBytes = usedMemory() - before;
+
+		before = usedMemory();
+		startTime = System.nanoTime();
+		AutoCompleteDictionaryDAWG dawg = new AutoCompleteDictionaryDAWG();
+		DictionaryLoader.loadDictionary(dawg, dictFile);
+		dawg.update();
+		double dawgTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+		long dawgBytes = usedMemory() - before;
+
+		// check they hold the same words
+		List<String> words = new ArrayList<String>();
+		collect(dawg.root, new StringBuilder(), words);
+		boolean same = words.size() == trie.size() && dawg.size() == trie.size();
+		for (String word : words) {
+			same &= trie.isWord(word);
+		}
+		for (String prefix : new String[] {"", "a", "th", "re", "un", "zz"}) {
+			// ties can be broken differently, but the lengths must be the same
+			same &= lengths(dawg.predictCompletions(prefix, 20)).equals(
+					lengths(trie.predictCompletions(prefix, 20)));
+		}
+		System.out.println(same ? "Same words: passed." : "Same words: FAILED.");
+
+		System.out.println("Words: " + dawg.size());
+		System.out.println("\t Nodes\t Heap (MB)\t Build (s)");
+		System.out.println("Trie\t " + countNodes(trie.getRoot()) + "\t " + trieBytes / MB + "\t " + trieTime);
+		System.out.println("DAWG\t " + dawg.getNumNodes() + "\t " + dawgBytes / MB + "\t " + dawgTime);
+	}
+
+}
@@ -1,14 +1,16 @@
 package spelling;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.Collection;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
 
 /** 
  * An trie data structure that implements the Dictionary and the AutoComplete ADT
+ * 
+ * Nodes do not store their text.  Searches follow the characters of the word, and
+ * the breadth first search of predictCompletions keeps the text of each node it
+ * queues as its parent and a character, so isWord allocates nothing and
+ * predictCompletions only builds the Strings it returns.
  * @author Sohof Dastmard
  *
  */
@@ -16,6 +18,7 @@ public class AutoCompleteDictionaryTrie implements  Dictionary, AutoComplete {
 
     private TrieNode root;
     private int size; 
+    private int maxLength;  // the length of the longest word
 
     public AutoCompleteDictionaryTrie()
 	{
@@ -29,45 +32,24 @@ public class AutoCompleteDictionaryTrie implements  Dictionary, AutoComplete {
 	 */
 	public boolean addWord(String word)
 	{
-		boolean result = addWord(word.toLowerCase(), root, 0);
-		if (result == true)
-			size++;
-		
-	    return result;
-	}
-	
-	private boolean addWord(String word, TrieNode node, int index)
-	{
-		boolean result = false;	
-		
-		if ( index >= word.length() )  {// we reached end of word. param node is the node containing last char.	
-	
-			if (node.endsWord() == true)  // last node was already a valid existing word so return false
-				return false;
-			else {
-				node.setEndsWord(true); 	// we reached the end of word which did exist in trie but was 
-				return true;				// not flagged as a valid word. So mark it is as valid word		
+		String lower = CharRange.toLowerCase(word);
+		TrieNode node = root;
+		for (int i = 0; i < lower.length(); i++) {
+			char c = lower.charAt(i);
+			TrieNode next = node.getChild(c);
+			if (next == null) {
+				next = node.insert(c);
 			}
-			
+			node = next;
 		}
-		TrieNode next = node.insert(word.charAt(index));
 		
-		if ( next == null ) { // The char at pos index existed as a node. Continue with next char of word
-
-			result = addWord(word, node.getChild(word.charAt(index)), ++index);
+		if (node.endsWord()) {  // the word was already in the trie
+			return false;
 		}
-			
-		else {// The char at index 0 did not exist so we create it.
-			
-			if (next.getText().equalsIgnoreCase(word)) {
-				next.setEndsWord(true);
-				return true;
-			}
-			else
-				result = addWord(word, next, ++index);
-		}
-	
-		return result;
+		node.setEndsWord(true);
+		size++;
+		maxLength = Math.max(maxLength, lower.length());
+	    return true;
 	}
 	
 	/** 
@@ -78,26 +60,31 @@ public class AutoCompleteDictionaryTrie implements  Dictionary, AutoComplete {
 	{
 	    return size;
 	}
+	
+	/** Return the root of the trie */
+	TrieNode getRoot()
+	{
+		return root;
+	}
 		
+	/** Is this a word according to this dictionary?  Each character is
+	 * lower cased as the trie is searched, instead of lower casing s. */
 	@Override
 	public boolean isWord(String s) 
 	{	
-		return isWord(s.toLowerCase(), root, 0);
+		return isWord(s, 0, s.length());
 	}
 	
-	private boolean isWord(String word, TrieNode node, int index) {
-		
-		boolean result = false;
-		
-		if ( index >= word.length() ) 
-			return node.endsWord();
-			
-		TrieNode next = node.getChild(word.charAt(index));
-		if ( next!= null) {
-			result = isWord(word, next, ++index);
+	/** Is text[start..end) a word according to this dictionary? */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		TrieNode node = root;
+		for (int i = start; i < end && node != null; i++) {
+			node = node.getChild(Character.toLowerCase(text.charAt(i)));
 		}
-			 
-		return result;
+		return node != null && node.endsWord();
 	}
 
 	/** 
@@ -119,71 +106,62 @@ public class AutoCompleteDictionaryTrie implements  Dictionary, AutoComplete {
    	  This method implements the following algorithm:
    	  1. Find the stem in the trie.  If the stem does not appear in the trie, return an
    	     empty list
-   	  2. Once the stem is found, perform a breadth first search to generate completions
-   	     using the following algorithm:
-   	     Create a queue (LinkedList) and add the node that completes the stem to the back
-   	        of the list.
-   	     Create a list of completions to return (initially empty)
-   	     While the queue is not empty and you don't have enough completions:
-   	        remove the first Node from the queue
-   	        If it is a word, add it to the completions list
-   	        Add all of its child nodes to the back of the queue
-   	  Return the list of completions
+   	  2. Once the stem is found, perform a breadth first search from it, until there
+   	     are enough completions or the queue is empty.  The queue is an array of nodes,
+   	     and the text of each node is kept in CompletionPaths as the entry of its
+   	     parent and a character, so only the Strings of completions are built.
    	 */
-    	 	TrieNode next = root;
-    	 	
-    	 	for (char c : prefix.toCharArray() ) {
-    	 	
-    	 		if (next != null)
-    	 			next = next.getChild(c);			// travel down the trie looking for stem							  	 			
+    	 	TrieNode stem = root;
+    	 	for (int i = 0; i < prefix.length() && stem != null; i++) {
+    	 		stem = stem.getChild(Character.toLowerCase(prefix.charAt(i)));
     	 	}
-    	 	if (next == null) 						//next == null means prefix did not exist as stem
-    	 		return new LinkedList<String>(); 	// return empty list
     	 	
-    	 	// Do a bfs search from stem node to find possible completions, based on distance from stem
-    	 	Deque<TrieNode> queue = new LinkedList<>(); // deque supports removeFirst() and removeLast() 
-    	 	queue.add(next);
+    	 	List<String> completions = new ArrayList<String>();
+    	 	if (stem == null) {  // the prefix did not exist as stem
+    	 		return completions;
+    	 	}
     	 	
-    	 	List<String> completions = new LinkedList<>();
-    	 	while (!queue.isEmpty() && completions.size() < numCompletions) {
-
-    	 		TrieNode node = queue.removeFirst();
-    	 		
-    	 		if (node.endsWord() == true) {
-	 				completions.add(node.getText());
-	 		}
-    	 		
-    	 		Set<Character> validNextChars = node.getValidNextCharacters();
-
-    	 		for (char c : validNextChars) { 
-    	 			
-    	 			queue.add(node.getChild(c));
-    	 			
-    	 		} // end for each
-    	 		
-    	 	}//end while
-	
-    	 return completions;
+    	 	// queue[i] is the node of entry i of paths.  Nodes are checked for words as
+    	 	// they are queued, so the search stops at the child that completes the list
+    	 	// instead of queuing the rest of its level.
+    	 	CompletionPaths paths = new CompletionPaths(prefix, maxLength);
+    	 	TrieNode[] queue = new TrieNode[paths.capacity()];
+    	 	queue[0] = stem;
+    	 	if (stem.endsWord() && numCompletions > 0) {
+    	 		completions.add(paths.text(0));
+    	 	}
+    	 	for (int head = 0; head < paths.size() && completions.size() < numCompletions; head++) {
+    	 		TrieNode node = queue[head];
+    	 		for (int i = 0; i < node.getNumChildren() && completions.size() < numCompletions; i++) {
+    	 			TrieNode child = node.getChildAt(i);
+    	 			int entry = paths.add(head, node.getChar(i));
+    	 			if (entry == queue.length) {
+    	 				queue = Arrays.copyOf(queue, paths.capacity());
+    	 			}
+    	 			queue[entry] = child;
+    	 			if (child.endsWord()) {
+    	 				completions.add(paths.text(entry));
+    	 			}
+    	 		}
+    	 	}
+    	 	return completions;
     }
 
  	// For debugging
  	public void printTree()
  	{
- 		printNode(root);
+ 		printNode(root, new char[maxLength], 0);
  	}
  	
- 	/** Do a pre-order traversal from this node down */
- 	public void printNode(TrieNode curr)
+ 	/** Do a pre-order traversal from this node down, where buffer holds the
+ 	 * depth characters of the path to the node */
+ 	private void printNode(TrieNode curr, char[] buffer, int depth)
  	{
- 		if (curr == null) 
- 			return;
- 		
- 		System.out.println(curr.getText());
+ 		System.out.println(new String(buffer, 0, depth));
  		
- 		TrieNode next = null;
- 		for (Character c : curr.getValidNextCharacters()) {
- 			next = curr.getChild(c);
- 			printNode(next);
+ 		for (int i = 0; i < curr.getNumChildren(); i++) {
+ 			buffer[depth] = curr.getChar(i);
+ 			printNode(curr.getChildAt(i), buffer, depth + 1);
  		}
  	}	
 	
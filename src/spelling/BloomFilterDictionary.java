@@ -0,0 +1,271 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Dictionary that puts a Bloom filter in front of another dictionary, so that most
+ * lookups of strings that are not words are answered without searching it.  Spelling
+ * suggestions look up many such strings: every candidate one edit away from a word.
+ *
+ * The filter is blocked: a word only sets bits in one block of 512 bits (eight longs,
+ * the size of a cache line), chosen by its hash, so a lookup reads one or two cache
+ * lines however many bits are tested.  The filter is sized for the expected number
+ * of words and false positive rate given when it is created; adding more words than
+ * expected raises the false positive rate, but never gives a wrong answer.
+ *
+ * The filter only knows the words added through this dictionary, so the dictionary
+ * it wraps must start out empty.  Like the words of the other dictionaries, the
+ * filter ignores case.
+ */
+public class BloomFilterDictionary implements Dictionary {
+
+	private static final int BLOCK_BITS = 512;
+	private static final int BLOCK_LONGS = BLOCK_BITS / 64;
+	private static final int MAX_HASHES = 16;
+
+	private final Dictionary dictionary;
+	private final long[] bits;
+	private final int numBlocks;
+	private final int numHashes;
+
+	private long lookups;
+	private long rejects;
+	private long falsePositives;
+
+	/** Create a filtered dictionary
+	 * @param dictionary The empty dictionary to put the filter in front of
+	 * @param expectedWords The number of words the filter is sized for
+	 * @param falsePositiveRate The fraction of non-words to pass to the dictionary,
+	 *   between 0 and 1 (exclusive), with the expected number of words
+	 * @throws IllegalArgumentException if the dictionary is not empty or the
+	 *   parameters are out of range
+	 */
+	public BloomFilterDictionary(Dictionary dictionary, int expectedWords, double falsePositiveRate)
+	{
+		if (dictionary.size() != 0) {
+			throw new IllegalArgumentException("The dictionary must be empty");
+		}
+		if (expectedWords < 1) {
+			throw new IllegalArgumentException("expectedWords must be positive: " + expectedWords);
+		}
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+		}
+		this.dictionary = dictionary;
+
+		// the usual sizing of a Bloom filter, with a fifth more bits since
+		// the words are not spread evenly over the blocks
+		double ln2 = Math.log(2);
+		double bitsPerWord = -Math.log(falsePositiveRate) / (ln2 * ln2);
+		numHashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerWord * ln2)));
+		long numBits = (long) Math.ceil(1.2 * bitsPerWord * expectedWords);
+		numBlocks = (int) Math.min(Integer.MAX_VALUE / BLOCK_LONGS, (numBits + BLOCK_BITS - 1) / BLOCK_BITS);
+		bits = new long[numBlocks * BLOCK_LONGS];
+	}
+
+	@Override
+	public boolean addWord(String word)
+	{
+		long h = hash(word, 0, word.length());
+		int block = block(h);
+		int a = (int) (h >>> 32);
+		int b = step(h);
+		for (int i = 0; i < numHashes; i++) {
+			int bit = (a + i * b) >>> 23;  // 9 bits, a bit of the block
+			bits[block + (bit >>> 6)] |= 1L << bit;
+		}
+		return dictionary.addWord(word);
+	}
+
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start..end) a word according to this dictionary?  The range
+	 * is passed on to the dictionary as a range, if it is not rejected. */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		lookups++;
+		if (!mightContain(text, start, end)) {
+			rejects++;
+			return false;
+		}
+		if (dictionary.isWord(text, start, end)) {
+			return true;
+		}
+		falsePositives++;
+		return false;
+	}
+
+	/** Return false if s is certainly not a word, true if it may be one */
+	public boolean mightContain(String s)
+	{
+		return mightContain(s, 0, s.length());
+	}
+
+	/** Return false if text[start..end) is certainly not a word, true if it may be one */
+	private boolean mightContain(CharSequence text, int start, int end)
+	{
+		long h = hash(text, start, end);
+		int block = block(h);
+		int a = (int) (h >>> 32);
+		int b = step(h);
+		for (int i = 0; i < numHashes; i++) {
+			int bit = (a + i * b) >>> 23;
+			if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Return the index in bits of the block of a hash */
+	private int block(long h)
+	{
+		// the low half of the hash, scaled to the number of blocks
+		return (int) (((h & 0xffffffffL) * numBlocks) >>> 32) * BLOCK_LONGS;
+	}
+
+	/** Return the distance between the bits of a hash in its block.  The
+	 * bits start at the high half of the hash, and the distance must not depend
+	 * on the block, or the words of a block would set the same patterns of bits. */
+	private static int step(long h)
+	{
+		return (int) ((h * 0x9e3779b97f4a7c15L) >>> 32) | 1;
+	}
+
+	/** FNV-1a hash of the lower case characters of text[start..end), finished
+	 * with the MurmurHash3 mix so every bit depends on every character */
+	private static long hash(CharSequence text, int start, int end)
+	{
+		long h = 0xcbf29ce484222325L;
+		for (int i = start; i < end; i++) {
+			h ^= Character.toLowerCase(text.charAt(i));
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	@Override
+	public int size()
+	{
+		return dictionary.size();
+	}
+
+	/** Return the number of isWord calls */
+	public long getLookups()
+	{
+		return lookups;
+	}
+
+	/** Return the number of isWord calls answered by the filter alone */
+	public long getRejects()
+	{
+		return rejects;
+	}
+
+	/** Return the number of isWord calls that found a word */
+	public long getHits()
+	{
+		return lookups - rejects - falsePositives;
+	}
+
+	/** Return the number of isWord calls for non-words that the filter passed to the dictionary */
+	public long getFalsePositives()
+	{
+		return falsePositives;
+	}
+
+	/** Set the counters back to zero */
+	public void resetCounters()
+	{
+		lookups = 0;
+		rejects = 0;
+		falsePositives = 0;
+	}
+
+	/** Return the number of bits of the filter */
+	public long getNumBits()
+	{
+		return (long) bits.length * 64;
+	}
+
+	/** Return the number of bits set (and tested) for each word */
+	public int getNumHashes()
+	{
+		return numHashes;
+	}
+
+	// Times looking up the strings one edit away from some words, with and without
+	// the filter, and prints its counters
+	public static void main(String[] args)
+	{
+		final double CONVERSION_FACTOR = 1000000000.0;
+		String dictFile = "data/dict.txt";
+
+		// the candidates for spelling suggestions near the first 500 small words
+		AutoCompleteDictionaryTrie small = new AutoCompleteDictionaryTrie();
+		DictionaryLoader.loadDictionary(small, "data/words.small.txt", 500);
+		NearbyWords nearby = new NearbyWords(small);
+		List<String> candidates = new ArrayList<String>();
+		for (String word : small.predictCompletions("", 500)) {
+			candidates.addAll(nearby.distanceOne(word, false));
+		}
+		System.out.println(candidates.size() + " candidates");
+
+		for (String name : new String[] {"HashSet", "BST"}) {
+			Dictionary plain = name.equals("HashSet") ? new DictionaryHashSet() : new DictionaryBST();
+			DictionaryLoader.loadDictionary(plain, dictFile);
+			BloomFilterDictionary filtered = new BloomFilterDictionary(
+					name.equals("HashSet") ? new DictionaryHashSet() : new DictionaryBST(), plain.size(), 0.01);
+			DictionaryLoader.loadDictionary(filtered, dictFile);
+
+			// the best of a few rounds, once both are compiled
+			double plainTime = Double.MAX_VALUE;
+			double filteredTime = Double.MAX_VALUE;
+			int differences = 0;
+			for (int round = 0; round < 5; round++) {
+				filtered.resetCounters();
+				long startTime = System.nanoTime();
+				int found = 0;
+				for (String candidate : candidates) {
+					if (plain.isWord(candidate)) {
+						found++;
+					}
+				}
+				plainTime = Math.min(plainTime, (System.nanoTime() - startTime) / CONVERSION_FACTOR);
+
+				startTime = System.nanoTime();
+				for (String candidate : candidates) {
+					if (filtered.isWord(candidate)) {
+						found--;
+					}
+				}
+				filteredTime = Math.min(filteredTime, (System.nanoTime() - startTime) / CONVERSION_FACTOR);
+				differences += found;
+			}
+
+			System.out.println(name + ": " + (differences == 0 ? "passed." : "FAILED."));
+			System.out.println("Filter: " + filtered.getNumBits() / 8 / 1024 + " KB, "
+					+ filtered.getNumHashes() + " hashes");
+			System.out.println("Lookups\t Rejects\t Hits\t False positives\t False positive rate");
+			System.out.println(filtered.getLookups() + "\t " + filtered.getRejects() + "\t "
+					+ filtered.getHits() + "\t " + filtered.getFalsePositives() + "\t "
+					+ (double) filtered.getFalsePositives() / (filtered.getRejects() + filtered.getFalsePositives()));
+			System.out.println("Plain (s)\t Filtered (s)");
+			System.out.println(plainTime + "\t " + filteredTime);
+			System.out.println();
+		}
+	}
+
+}
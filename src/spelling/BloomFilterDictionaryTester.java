@@ -0,0 +1,87 @@
+package spelling;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the filter never hides a word, and that its counters add up.
+ */
+public class BloomFilterDictionaryTester {
+
+	private String dictFile = "data/words.small.txt";
+
+	BloomFilterDictionary emptyDict;
+	BloomFilterDictionary largeDict;
+	DictionaryHashSet expected;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		emptyDict = new BloomFilterDictionary(new DictionaryHashSet(), 10, 0.01);
+		largeDict = new BloomFilterDictionary(new DictionaryHashSet(), 4438, 0.01);
+		DictionaryLoader.loadDictionary(largeDict, dictFile);
+		expected = new DictionaryHashSet();
+		DictionaryLoader.loadDictionary(expected, dictFile);
+	}
+
+	/** The filter must only be put in front of an empty dictionary */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotEmpty()
+	{
+		new BloomFilterDictionary(expected, 10, 0.01);
+	}
+
+	/** Test the false positive rate is checked */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRate()
+	{
+		new BloomFilterDictionary(new DictionaryHashSet(), 10, 1);
+	}
+
+	/** Every word added must be found, in any case */
+	@Test
+	public void testIsWord()
+	{
+		assertEquals("Testing size for empty dict", 0, emptyDict.size());
+		assertEquals("Testing size for large dict", 4438, largeDict.size());
+		assertFalse("Testing isWord on empty: Hello", emptyDict.isWord("Hello"));
+
+		NearbyWords nearby = new NearbyWords(expected);
+		for (String word : new String[] {"hello", "no", "subsequent", "with", "young"}) {
+			assertTrue(word, largeDict.isWord(word));
+			assertTrue(word, largeDict.isWord(word.toUpperCase()));
+			for (String candidate : nearby.distanceOne(word, false)) {
+				assertEquals(candidate, expected.isWord(candidate), largeDict.isWord(candidate));
+			}
+		}
+
+		emptyDict.addWord("XYZAbC");
+		assertTrue("Testing isWord after addWord", emptyDict.isWord("xyzabc"));
+		assertEquals(1, emptyDict.size());
+	}
+
+	/** Test the counters */
+	@Test
+	public void testCounters()
+	{
+		largeDict.resetCounters();
+		int words = 0;
+		NearbyWords nearby = new NearbyWords(expected);
+		for (String candidate : nearby.distanceOne("hello", false)) {
+			if (largeDict.isWord(candidate)) {
+				words++;
+			}
+		}
+		assertEquals(nearby.distanceOne("hello", false).size(), largeDict.getLookups());
+		assertEquals(words, largeDict.getHits());
+		assertEquals(largeDict.getLookups(),
+				largeDict.getRejects() + largeDict.getHits() + largeDict.getFalsePositives());
+		assertTrue("Most non-words are rejected", largeDict.getRejects() > 10 * largeDict.getFalsePositives());
+
+		largeDict.resetCounters();
+		assertEquals(0, largeDict.getLookups());
+	}
+
+}
@@ -0,0 +1,109 @@
+package spelling;
+
+/**
+ * A view of the characters text[start..end) of a longer text, with the
+ * comparisons the dictionaries use to look up a word in a text without copying
+ * it or lower casing it first.  All of them lower case one character at a time,
+ * with Character.toLowerCase, so the words they are compared with must be lower
+ * cased the same way, by toLowerCase below.
+ */
+class CharRange implements CharSequence {
+
+	private final CharSequence text;
+	private final int start;
+	private final int end;
+
+	/** Create a view of text[start..end) */
+	CharRange(CharSequence text, int start, int end)
+	{
+		checkRange(text, start, end);
+		this.text = text;
+		this.start = start;
+		this.end = end;
+	}
+
+	@Override
+	public int length()
+	{
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		return text.charAt(start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to)
+	{
+		return new CharRange(text, start + from, start + to);
+	}
+
+	@Override
+	public String toString()
+	{
+		return text.subSequence(start, end).toString();
+	}
+
+	/** Return the lower case of text, lower casing one character at a time.  Unlike
+	 * String.toLowerCase, this does not depend on the default locale (in a Turkish
+	 * locale "I" becomes a dotless i), so it matches the comparisons below. */
+	static String toLowerCase(CharSequence text)
+	{
+		char[] chars = new char[text.length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(text.charAt(i));
+		}
+		return new String(chars);
+	}
+
+	/** Compare two character sequences, ignoring case */
+	static int compareIgnoreCase(CharSequence a, CharSequence b)
+	{
+		int n = Math.min(a.length(), b.length());
+		for (int i = 0; i < n; i++) {
+			char x = Character.toLowerCase(a.charAt(i));
+			char y = Character.toLowerCase(b.charAt(i));
+			if (x != y) {
+				return x - y;
+			}
+		}
+		return a.length() - b.length();
+	}
+
+	/** Return true if the lower case word equals text[start..end), ignoring case */
+	static boolean equalsIgnoreCase(String word, CharSequence text, int start, int end)
+	{
+		if (word.length() != end - start) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (word.charAt(i - start) != Character.toLowerCase(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Return the hash code of the lower case of text[start..end), which for a lower
+	 * case String is the same as its hashCode */
+	static int hashIgnoreCase(CharSequence text, int start, int end)
+	{
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + Character.toLowerCase(text.charAt(i));
+		}
+		return h;
+	}
+
+	/** Check that start and end are a range of text */
+	static void checkRange(CharSequence text, int start, int end)
+	{
+		if (start < 0 || end < start || end > text.length()) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end
+					+ ") out of bounds for length " + text.length());
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package spelling;
+
+import java.util.Arrays;
+
+/**
+ * The text of the nodes queued by a breadth first search for completions.  Entry 0
+ * is the stem, and every other entry is the text of its parent entry followed by one
+ * character, so queuing a node only stores an int and a char, and a String is only
+ * built for the words that are returned.
+ *
+ * The nodes themselves are kept by the search, in an array indexed by entry that
+ * grows to capacity() when it is full.
+ */
+final class CompletionPaths {
+
+	private final char[] buffer;  		// the stem, followed by the text being built
+	private final int stemLength;
+	private int[] parents = new int[16];
+	private char[] chars = new char[16];
+	private int size = 1;
+
+	/** Create the paths of a search from the lower case of prefix
+	 * @param prefix The stem of the completions
+	 * @param maxLength The length of the longest completion
+	 */
+	CompletionPaths(String prefix, int maxLength)
+	{
+		stemLength = prefix.length();
+		buffer = new char[Math.max(maxLength, stemLength)];
+		for (int i = 0; i < stemLength; i++) {
+			buffer[i] = Character.toLowerCase(prefix.charAt(i));
+		}
+	}
+
+	/** Add the entry of the text of parent followed by c
+	 * @return the new entry
+	 */
+	int add(int parent, char c)
+	{
+		if (size == parents.length) {
+			parents = Arrays.copyOf(parents, 2 * size);
+			chars = Arrays.copyOf(chars, 2 * size);
+		}
+		parents[size] = parent;
+		chars[size] = c;
+		return size++;
+	}
+
+	/** Return the number of entries, including the stem */
+	int size()
+	{
+		return size;
+	}
+
+	/** Return the number of entries that fit before the arrays grow again */
+	int capacity()
+	{
+		return parents.length;
+	}
+
+	/** Return the text of an entry */
+	String text(int entry)
+	{
+		int length = stemLength;
+		for (int e = entry; e > 0; e = parents[e]) {
+			length++;
+		}
+		for (int e = entry, i = length - 1; e > 0; e = parents[e], i--) {
+			buffer[i] = chars[e];
+		}
+		return new String(buffer, 0, length);
+	}
+
+}
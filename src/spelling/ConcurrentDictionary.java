@@ -0,0 +1,188 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Dictionary and AutoComplete implementation that many threads can search while
+ * words are being added, for example to spell check on a background thread while
+ * the user adds words to the dictionary.
+ *
+ * The words are kept in a copy-on-write trie.  Nodes never change once they are
+ * made: adding a word copies the nodes on its path (and shares all the others), then
+ * publishes the new root through a volatile field.  A search reads the root once
+ * and works on that version of the trie, so it never takes a lock or waits for a
+ * writer, and it sees every word or none of a word being added.  Writers take a
+ * lock, so words are added one at a time.
+ */
+public class ConcurrentDictionary implements Dictionary, AutoComplete {
+
+	/** A node of the trie, which never changes */
+	private static final class Node {
+		static final char[] NO_CHARS = new char[0];
+		static final Node[] NO_CHILDREN = new Node[0];
+		static final Node EMPTY = new Node(NO_CHARS, NO_CHILDREN, false);
+
+		final char[] chars;  		// the characters of the children, in increasing order
+		final Node[] children;
+		final boolean isWord;
+
+		Node(char[] chars, Node[] children, boolean isWord)
+		{
+			this.chars = chars;
+			this.children = children;
+			this.isWord = isWord;
+		}
+
+		Node getChild(char c)
+		{
+			int i = Arrays.binarySearch(chars, c);
+			return i >= 0 ? children[i] : null;
+		}
+	}
+
+	/** A version of the dictionary: its trie and the counts that go with it */
+	private static final class Version {
+		final Node root;
+		final int size;
+		final int maxLength;
+
+		Version(Node root, int size, int maxLength)
+		{
+			this.root = root;
+			this.size = size;
+			this.maxLength = maxLength;
+		}
+	}
+
+	private volatile Version current = new Version(Node.EMPTY, 0, 0);
+
+	/** Add this word to the dictionary.  Words are stored in lower case.
+	 * Threads searching the dictionary at the same time are not blocked.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there).
+	 */
+	@Override
+	public boolean addWord(String word)
+	{
+		String lower = CharRange.toLowerCase(word);
+		synchronized (this) {
+			Version version = current;
+			Node root = add(version.root, lower, 0);
+			if (root == null) {
+				return false;
+			}
+			current = new Version(root, version.size + 1, Math.max(version.maxLength, lower.length()));
+			return true;
+		}
+	}
+
+	/** Return a copy of node with word[index..] added below it, or null if it is
+	 * already there */
+	private static Node add(Node node, String word, int index)
+	{
+		if (index == word.length()) {
+			return node.isWord ? null : new Node(node.chars, node.children, true);
+		}
+		char c = word.charAt(index);
+		int i = Arrays.binarySearch(node.chars, c);
+		Node child = add(i >= 0 ? node.children[i] : Node.EMPTY, word, index + 1);
+		if (child == null) {
+			return null;
+		}
+
+		if (i >= 0) {
+			// only the child changes, so the characters are shared
+			Node[] children = node.children.clone();
+			children[i] = child;
+			return new Node(node.chars, children, node.isWord);
+		}
+		i = -i - 1;
+		int n = node.chars.length;
+		char[] chars = new char[n + 1];
+		Node[] children = new Node[n + 1];
+		System.arraycopy(node.chars, 0, chars, 0, i);
+		System.arraycopy(node.children, 0, children, 0, i);
+		System.arraycopy(node.chars, i, chars, i + 1, n - i);
+		System.arraycopy(node.children, i, children, i + 1, n - i);
+		chars[i] = c;
+		children[i] = child;
+		return new Node(chars, children, node.isWord);
+	}
+
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start..end) a word according to this dictionary? */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		Node node = current.root;
+		for (int i = start; i < end && node != null; i++) {
+			node = node.getChild(Character.toLowerCase(text.charAt(i)));
+		}
+		return node != null && node.isWord;
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return current.size;
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length, containing the
+	 * numCompletions shortest legal completions of the prefix string, as described by
+	 * AutoCompleteDictionaryTrie.  All of them come from the same version of the
+	 * dictionary, even if words are added during the search.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		Version version = current;
+		List<String> completions = new ArrayList<String>();
+		Node stem = version.root;
+		for (int i = 0; i < prefix.length() && stem != null; i++) {
+			stem = stem.getChild(Character.toLowerCase(prefix.charAt(i)));
+		}
+		if (stem == null) {
+			return completions;
+		}
+
+		// breadth first as in AutoCompleteDictionaryTrie, where queue[i] is the node
+		// of entry i of paths, and nodes are checked for words as they are queued
+		CompletionPaths paths = new CompletionPaths(prefix, version.maxLength);
+		Node[] queue = new Node[paths.capacity()];
+		queue[0] = stem;
+		if (stem.isWord && numCompletions > 0) {
+			completions.add(paths.text(0));
+		}
+		for (int head = 0; head < paths.size() && completions.size() < numCompletions; head++) {
+			Node node = queue[head];
+			for (int i = 0; i < node.chars.length && completions.size() < numCompletions; i++) {
+				Node child = node.children[i];
+				int entry = paths.add(head, node.chars[i]);
+				if (entry == queue.length) {
+					queue = Arrays.copyOf(queue, paths.capacity());
+				}
+				queue[entry] = child;
+				if (child.isWord) {
+					completions.add(paths.text(entry));
+				}
+			}
+		}
+		return completions;
+	}
+
+}
@@ -0,0 +1,216 @@
+package spelling;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The basic tests of AutoCompleteDictionaryTrieTester, and stress tests with
+ * threads adding words while others search the dictionary.
+ */
+public class ConcurrentDictionaryTester {
+
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int WORDS_PER_WRITER = 2000;
+
+	private String dictFile = "data/words.small.txt";
+
+	ConcurrentDictionary emptyDict;
+	ConcurrentDictionary smallDict;
+	ConcurrentDictionary largeDict;
+	List<String> largeWords;
+	ExecutorService pool;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		emptyDict = new ConcurrentDictionary();
+		smallDict = new ConcurrentDictionary();
+		largeDict = new ConcurrentDictionary();
+
+		smallDict.addWord("Hello");
+		smallDict.addWord("HElLo");
+		smallDict.addWord("help");
+		smallDict.addWord("he");
+		smallDict.addWord("hem");
+		smallDict.addWord("hot");
+		smallDict.addWord("hey");
+		smallDict.addWord("a");
+		smallDict.addWord("subsequent");
+
+		DictionaryLoader.loadDictionary(largeDict, dictFile);
+		largeWords = largeDict.predictCompletions("", largeDict.size());
+		pool = Executors.newFixedThreadPool(WRITERS + READERS);
+	}
+
+	@After
+	public void tearDown()
+	{
+		pool.shutdownNow();
+	}
+
+	/** Test size, isWord and predictCompletions on one thread */
+	@Test
+	public void testSingleThread()
+	{
+		assertEquals("Testing size for empty dict", 0, emptyDict.size());
+		assertEquals("Testing size for small dict", 8, smallDict.size());
+		assertEquals("Testing size for large dict", 4438, largeDict.size());
+		assertEquals(4438, largeWords.size());
+
+		assertFalse("Testing isWord on empty: Hello", emptyDict.isWord("Hello"));
+		assertTrue("Testing isWord on small: Hello", smallDict.isWord("Hello"));
+		assertTrue("Testing isWord on large: hello", largeDict.isWord("hello"));
+		assertFalse("Testing isWord on small: hellow", smallDict.isWord("hellow"));
+		assertFalse("Testing isWord on small: empty string", smallDict.isWord(""));
+		assertTrue("Testing isWord on range: HELLO", largeDict.isWord("Say HELLO", 4, 9));
+
+		List<String> completions = smallDict.predictCompletions("", 4);
+		assertEquals(4, completions.size());
+		assertTrue(completions.contains("a"));
+		assertTrue(completions.contains("he"));
+		completions = smallDict.predictCompletions("hel", 10);
+		assertEquals(2, completions.size());
+		assertTrue(completions.contains("hello") && completions.contains("help"));
+		assertEquals(0, smallDict.predictCompletions("x", 5).size());
+	}
+
+	/** The word i added by writer w */
+	private static String newWord(int w, int i)
+	{
+		return "w" + w + "x" + i;
+	}
+
+	/**
+	 * Writers add words while readers search.  Readers must always find the
+	 * words that were there from the start, must see each writer's words in the
+	 * order they were added, and must get completions that are all words in
+	 * order of length.  Writers must find their words as soon as they are added.
+	 */
+	@Test(timeout = 60000)
+	public void testReadersDuringWrites() throws Exception
+	{
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger writersLeft = new AtomicInteger(WRITERS);
+		final AtomicBoolean failed = new AtomicBoolean();
+		List<Future<String>> results = new ArrayList<Future<String>>();
+
+		for (int w = 0; w < WRITERS; w++) {
+			final int writer = w;
+			results.add(pool.submit(() -> {
+				start.await();
+				try {
+					for (int i = 0; i < WORDS_PER_WRITER && !failed.get(); i++) {
+						String word = newWord(writer, i);
+						if (!largeDict.addWord(word) || !largeDict.isWord(word)) {
+							failed.set(true);
+							return "writer " + writer + " could not add " + word;
+						}
+					}
+					return null;
+				}
+				finally {
+					writersLeft.decrementAndGet();
+				}
+			}));
+		}
+		for (int r = 0; r < READERS; r++) {
+			final Random random = new Random(r);
+			results.add(pool.submit(() -> {
+				start.await();
+				int lastSize = 0;
+				long reads = 0;
+				while (writersLeft.get() > 0 && !failed.get() || reads < 1000) {
+					reads++;
+					int size = largeDict.size();
+					if (size < lastSize) {
+						failed.set(true);
+						return "size went from " + lastSize + " to " + size;
+					}
+					lastSize = size;
+
+					String word = largeWords.get(random.nextInt(largeWords.size()));
+					if (!largeDict.isWord(word)) {
+						failed.set(true);
+						return "lost " + word;
+					}
+
+					// a writer adds its words in order, so one seen means all before it are there
+					int w = random.nextInt(WRITERS);
+					int i = 1 + random.nextInt(WORDS_PER_WRITER - 1);
+					if (largeDict.isWord(newWord(w, i)) && !largeDict.isWord(newWord(w, i - 1))) {
+						failed.set(true);
+						return "found " + newWord(w, i) + " before " + newWord(w, i - 1);
+					}
+
+					List<String> completions = largeDict.predictCompletions("w" + w, 20);
+					for (int k = 0; k < completions.size(); k++) {
+						if (!largeDict.isWord(completions.get(k))
+								|| k > 0 && completions.get(k).length() < completions.get(k - 1).length()) {
+							failed.set(true);
+							return "bad completions " + completions;
+						}
+					}
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<String> result : results) {
+			assertNull(result.get(50, TimeUnit.SECONDS));
+		}
+		assertEquals(4438 + WRITERS * WORDS_PER_WRITER, largeDict.size());
+		for (int w = 0; w < WRITERS; w++) {
+			for (int i = 0; i < WORDS_PER_WRITER; i++) {
+				assertTrue(largeDict.isWord(newWord(w, i)));
+			}
+		}
+	}
+
+	/** Threads adding the same words must add each of them exactly once */
+	@Test(timeout = 60000)
+	public void testSameWords() throws Exception
+	{
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < WRITERS + READERS; t++) {
+			final boolean upper = t % 2 == 0;
+			results.add(pool.submit(() -> {
+				start.await();
+				int added = 0;
+				for (int i = 0; i < WORDS_PER_WRITER; i++) {
+					String word = newWord(0, i);
+					if (emptyDict.addWord(upper ? word.toUpperCase() : word)) {
+						added++;
+					}
+				}
+				return added;
+			}));
+		}
+
+		start.countDown();
+		int added = 0;
+		for (Future<Integer> result : results) {
+			added += result.get(50, TimeUnit.SECONDS);
+		}
+		assertEquals(WORDS_PER_WRITER, added);
+		assertEquals(WORDS_PER_WRITER, emptyDict.size());
+		assertEquals(WORDS_PER_WRITER, emptyDict.predictCompletions("w0x", 2 * WORDS_PER_WRITER).size());
+	}
+
+}
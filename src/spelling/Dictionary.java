@@ -17,6 +17,20 @@ public interface Dictionary {
 	/** Is this a word according to this dictionary? */
 	public abstract boolean isWord(String s);
 	
+	/** Is text[start..end) a word according to this dictionary?  This looks
+	 * up a word of a longer text without first copying it into a String.
+	 * Dictionaries override it to lower case the characters as they search,
+	 * so that a lookup allocates nothing.
+	 * @param text The text containing the word
+	 * @param start The index of the first character of the word
+	 * @param end The index after the last character of the word
+	 * @throws IndexOutOfBoundsException if the range is not in the text
+	 */
+	public default boolean isWord(CharSequence text, int start, int end)
+	{
+		return isWord(text.subSequence(start, end).toString());
+	}
+	
 	/** Return the number of words in the dictionary */
 	public abstract int size();
 	
@@ -5,14 +5,16 @@ import java.util.TreeSet;
 /**
  * @author Sohof Dastmard
  *
+ * The words are kept in lower case, in a TreeSet ordered ignoring case, so a
+ * word can be looked up in any case without lower casing it first.
  */
 public class DictionaryBST implements Dictionary 
 {
-   private TreeSet<String> dict;
+   private TreeSet<CharSequence> dict;
 	  
    public DictionaryBST() {
 	   
-	   dict = new TreeSet<>();
+	   dict = new TreeSet<>(CharRange::compareIgnoreCase);
    }
     
     /** Add this word to the dictionary.  Convert it to lowercase first
@@ -22,8 +24,8 @@ public class DictionaryBST implements Dictionary
      * (it wasn't already there). */
     public boolean addWord(String word) {
     	
-    		if (!dict.contains(word.toLowerCase())) {
-    		dict.add(word.toLowerCase());
+    		if (!dict.contains(CharRange.toLowerCase(word))) {
+    		dict.add(CharRange.toLowerCase(word));
     		return true;
     	}
     	else
@@ -39,7 +41,15 @@ public class DictionaryBST implements Dictionary
     /** Is this a word according to this dictionary? */
     public boolean isWord(String s) {
     	
-        return dict.contains(s.toLowerCase());
+        return dict.contains(s);
+    }
+
+    /** Is text[start..end) a word according to this dictionary?  The search
+     * only creates a view of the range, not a copy of it. */
+    @Override
+    public boolean isWord(CharSequence text, int start, int end) {
+    	
+    	return dict.contains(new CharRange(text, start, end));
     }
 
 }
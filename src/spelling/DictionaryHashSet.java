@@ -3,22 +3,23 @@
  */
 package spelling;
 
-import java.io.File;
-import java.util.HashSet;
-import java.util.Scanner;
-
-
 /**
- * A class that implements the Dictionary interface with a HashSet
+ * A class that implements the Dictionary interface with a hash set.
+ * 
+ * The set is an open addressing table of the lower case words, at most half
+ * full, whose hash codes are computed the same way from a word and from a range
+ * of a text with its characters lower cased one by one.  So a range of a text
+ * can be looked up without copying it into a String first.
  */
 public class DictionaryHashSet implements Dictionary 
 {
 
-    private HashSet<String> words;
+    private String[] words;  // the table, null for an empty slot
+    private int size;
 	
 	public DictionaryHashSet()
 	{
-	    words = new HashSet<String>();
+	    words = new String[16];
 	}
 	
     /** Add this word to the dictionary.
@@ -28,21 +29,66 @@ public class DictionaryHashSet implements Dictionary
 	@Override
 	public boolean addWord(String word) 
 	{
-		return words.add(word.toLowerCase());
+		String lower = CharRange.toLowerCase(word);
+		if (isWord(lower)) {
+			return false;
+		}
+		if (2 * (size + 1) > words.length) {
+			String[] old = words;
+			words = new String[2 * old.length];
+			for (String w : old) {
+				if (w != null) {
+					insert(w);
+				}
+			}
+		}
+		insert(lower);
+		size++;
+		return true;
+	}
+	
+	/** Put a word in the first empty slot from its hash on */
+	private void insert(String word)
+	{
+		int mask = words.length - 1;
+		int slot = spread(word.hashCode()) & mask;
+		while (words[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		words[slot] = word;
+	}
+	
+	/** Spread the high bits of a hash code, since the table size is a power of two */
+	private static int spread(int h)
+	{
+		return h ^ (h >>> 16);
 	}
 
 	/** Return the number of words in the dictionary */
     @Override
 	public int size()
 	{
-    	 return words.size();
+    	 return size;
 	}
 	
 	/** Is this a word according to this dictionary? */
     @Override
 	public boolean isWord(String s) {
-    	return words.contains(s.toLowerCase());
+    	return isWord(s, 0, s.length());
 	}
 	
+	/** Is text[start..end) a word according to this dictionary? */
+    @Override
+	public boolean isWord(CharSequence text, int start, int end) {
+    	CharRange.checkRange(text, start, end);
+    	int mask = words.length - 1;
+    	for (int slot = spread(CharRange.hashIgnoreCase(text, start, end)) & mask; words[slot] != null;
+    			slot = (slot + 1) & mask) {
+    		if (CharRange.equalsIgnoreCase(words[slot], text, start, end)) {
+    			return true;
+    		}
+    	}
+    	return false;
+	}
    
 }
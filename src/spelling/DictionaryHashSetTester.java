@@ -0,0 +1,101 @@
+package spelling;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the open addressing table of DictionaryHashSet, as it grows and as
+ * words that collide are added.
+ */
+public class DictionaryHashSetTester {
+
+	private String dictFile = "data/words.small.txt";
+
+	DictionaryHashSet emptyDict;
+	DictionaryHashSet smallDict;
+	DictionaryHashSet largeDict;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		emptyDict = new DictionaryHashSet();
+		smallDict = new DictionaryHashSet();
+		largeDict = new DictionaryHashSet();
+
+		smallDict.addWord("Hello");
+		smallDict.addWord("HElLo");
+		smallDict.addWord("help");
+		smallDict.addWord("a");
+		smallDict.addWord("subsequent");
+
+		DictionaryLoader.loadDictionary(largeDict, dictFile);
+	}
+
+	/** Test if the size method is working correctly. */
+	@Test
+	public void testSize()
+	{
+		assertEquals("Testing size for empty dict", 0, emptyDict.size());
+		assertEquals("Testing size for small dict", 4, smallDict.size());
+		assertEquals("Testing size for large dict", 4438, largeDict.size());
+	}
+
+	/** Test the isWord method */
+	@Test
+	public void testIsWord()
+	{
+		assertEquals("Testing isWord on empty: Hello", false, emptyDict.isWord("Hello"));
+		assertEquals("Testing isWord on small: Hello", true, smallDict.isWord("Hello"));
+		assertEquals("Testing isWord on large: Hello", true, largeDict.isWord("Hello"));
+		assertEquals("Testing isWord on small: hellow", false, smallDict.isWord("hellow"));
+		assertEquals("Testing isWord on large: hellow", false, largeDict.isWord("hellow"));
+		assertEquals("Testing isWord on small: empty string", false, smallDict.isWord(""));
+		assertEquals("Testing isWord on large: no", true, largeDict.isWord("no"));
+	}
+
+	/** Every word must still be found after the table grows many times */
+	@Test
+	public void testGrow()
+	{
+		for (int i = 0; i < 10000; i++) {
+			assertEquals("Adding w" + i, true, emptyDict.addWord("w" + i));
+		}
+		assertEquals("Testing size after growing", 10000, emptyDict.size());
+		for (int i = 0; i < 10000; i++) {
+			assertEquals("Testing isWord: W" + i, true, emptyDict.isWord("W" + i));
+		}
+		assertEquals("Testing isWord: w10000", false, emptyDict.isWord("w10000"));
+		assertEquals("Adding w0 again", false, emptyDict.addWord("W0"));
+	}
+
+	/** Words with the same hash code share a run of slots, and must all be found */
+	@Test
+	public void testCollisions()
+	{
+		// "1z" and "2[" have the same hash code, and so does any string made of them
+		String[] words = { "1z1z", "1z2[", "2[1z", "2[2[" };
+		for (String word : words) {
+			assertEquals("Adding " + word, true, emptyDict.addWord(word));
+		}
+		for (String word : words) {
+			assertEquals("Testing isWord: " + word, true, emptyDict.isWord(word.toUpperCase()));
+		}
+		assertEquals("Testing isWord: 1Z1", false, emptyDict.isWord("1Z1"));
+		assertEquals("Testing isWord: 1z1[", false, emptyDict.isWord("1z1["));
+		assertEquals("Testing size", 4, emptyDict.size());
+	}
+
+	/** Test the addWord method */
+	@Test
+	public void testAddWord()
+	{
+		assertEquals("Asserting hellow is not in large dict", false, largeDict.isWord("hellow"));
+		assertEquals("Adding hellow", true, largeDict.addWord("hellow"));
+		assertEquals("Adding Hellow again", false, largeDict.addWord("Hellow"));
+		assertEquals("Asserting hellow is in large dict", true, largeDict.isWord("HELLOW"));
+		assertEquals("Testing size after adding", 4439, largeDict.size());
+	}
+
+}
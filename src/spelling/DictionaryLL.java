@@ -24,8 +24,8 @@ public class DictionaryLL implements Dictionary
      * (it wasn't already there). */
     public boolean addWord(String word) {
     	     	
-    	if (!dict.contains(word.toLowerCase())) {
-    		dict.add(word.toLowerCase());
+    	if (!dict.contains(CharRange.toLowerCase(word))) {
+    		dict.add(CharRange.toLowerCase(word));
     		return true;
     	}
     	else
@@ -41,7 +41,20 @@ public class DictionaryLL implements Dictionary
     /** Is this a word according to this dictionary? */
     public boolean isWord(String s) {
        
-        return dict.contains(s.toLowerCase());
+        return isWord(s, 0, s.length());
+    }
+
+    /** Is text[start..end) a word according to this dictionary? */
+    @Override
+    public boolean isWord(CharSequence text, int start, int end) {
+    	
+    	CharRange.checkRange(text, start, end);
+    	for (String word : dict) {
+    		if (CharRange.equalsIgnoreCase(word, text, start, end)) {
+    			return true;
+    		}
+    	}
+    	return false;
     }
     
 }
@@ -3,6 +3,18 @@ package spelling;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class DictionaryLoader {
 
@@ -12,20 +24,29 @@ public class DictionaryLoader {
      * @param filename The file containing the words to load.  Each word must be on a separate line.
      */    
 	public static void loadDictionary(Dictionary d, String filename)
+    {
+        readDictionary(d, filename);
+    }
+    
+    /** Load the words from the dictionary file into the dictionary, as loadDictionary 
+     * does, and return the number of lines read */
+    private static int readDictionary(Dictionary d, String filename)
     {
         // Dictionary files have 1 word per line
         BufferedReader reader = null;
+        int numLines = 0;
         try {
             String nextWord;
             reader = new BufferedReader(new FileReader(filename));
             while ((nextWord = reader.readLine()) != null) {
                 d.addWord(nextWord);
+                numLines++;
             }
         } catch (IOException e) {
             System.err.println("Problem loading dictionary file: " + filename);
             e.printStackTrace();
         }
-        
+        return numLines;
     }
     
     /** Load the first N words from the dictionary file into the dictionary
@@ -56,4 +77,146 @@ public class DictionaryLoader {
         }    	
     	
     }
+
+    // the smallest range of the file read by one task
+    private static final int MIN_CHUNK = 1 << 16;
+
+    /** Load the words from the dictionary file into the dictionary, reading the file
+     * in parallel.  The file is cut into byte ranges at line ends, and each range is
+     * read by a task on the pool.  If d is a PartitionedDictionary, each partition is
+     * then built by its own task; any other dictionary gets the words one after the
+     * other, as it is not thread safe.  Either way the words are added in file order.
+     * 
+     * Lines end with "\n" or "\r\n", and the file is read in the default charset,
+     * as by loadDictionary.  A file too large to map is read by loadDictionary.
+     * 
+     * @param d  The dictionary to load
+     * @param filename The file containing the words to load.  Each word must be on a separate line.
+     * @param pool The pool to run the tasks on
+     * @return the number of lines read from the file, including blank lines and 
+     *   words that were already in the dictionary, so it may be more than the 
+     *   number of words added
+     */
+    public static int loadDictionaryParallel(Dictionary d, String filename, ForkJoinPool pool)
+    {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return readDictionary(d, filename);
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            System.err.println("Problem loading dictionary file: " + filename);
+            e.printStackTrace();
+            return 0;
+        }
+        
+        final PartitionedDictionary partitioned = d instanceof PartitionedDictionary ? (PartitionedDictionary) d : null;
+        final int numPartitions = partitioned != null ? partitioned.getNumPartitions() : 1;
+        
+        // cut the file into ranges that end after a '\n'
+        int length = bytes.limit();
+        int numChunks = Math.max(1, Math.min(4 * pool.getParallelism(), length / MIN_CHUNK));
+        int[] ends = new int[numChunks + 1];
+        for (int i = 1; i < numChunks; i++) {
+            int end = Math.max(ends[i - 1], (int) ((long) length * i / numChunks));
+            while (end < length && bytes.get(end - 1) != '\n') {
+                end++;
+            }
+            ends[i] = end;
+        }
+        ends[numChunks] = length;
+        
+        // read the lines of each range, sorted into the partitions
+        List<Callable<List<List<String>>>> readers = new ArrayList<Callable<List<List<String>>>>();
+        for (int i = 0; i < numChunks; i++) {
+            final int start = ends[i];
+            final int end = ends[i + 1];
+            readers.add(() -> {
+                List<List<String>> lines = new ArrayList<List<String>>();
+                for (int p = 0; p < numPartitions; p++) {
+                    lines.add(new ArrayList<String>());
+                }
+                readLines(bytes, start, end, lines, partitioned);
+                return lines;
+            });
+        }
+        List<List<List<String>>> chunks = getAll(pool.invokeAll(readers));
+        
+        int count = 0;
+        for (List<List<String>> chunk : chunks) {
+            for (List<String> lines : chunk) {
+                count += lines.size();
+            }
+        }
+        if (partitioned == null) {
+            for (List<List<String>> chunk : chunks) {
+                for (String word : chunk.get(0)) {
+                    d.addWord(word);
+                }
+            }
+            return count;
+        }
+        
+        // each partition is only changed by its own task
+        List<Callable<Void>> builders = new ArrayList<Callable<Void>>();
+        for (int p = 0; p < numPartitions; p++) {
+            final Dictionary partition = partitioned.getPartition(p);
+            final int index = p;
+            builders.add(() -> {
+                for (List<List<String>> chunk : chunks) {
+                    for (String word : chunk.get(index)) {
+                        partition.addWord(word);
+                    }
+                }
+                return null;
+            });
+        }
+        getAll(pool.invokeAll(builders));
+        return count;
+    }
+    
+    /** Add the lines of bytes[start..end) to the list of their partition */
+    private static void readLines(MappedByteBuffer bytes, int start, int end, List<List<String>> lines,
+            PartitionedDictionary partitioned)
+    {
+        Charset charset = Charset.defaultCharset();
+        byte[] chunk = new byte[end - start];
+        ByteBuffer view = bytes.duplicate();
+        view.position(start);
+        view.get(chunk);
+        
+        int lineStart = 0;
+        while (lineStart < chunk.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < chunk.length && chunk[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && chunk[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            // a last line without a '\n' is still a line, but there is no line after a final '\n'
+            String word = new String(chunk, lineStart, lineEnd - lineStart, charset);
+            lines.get(partitioned != null ? partitioned.partitionOf(word) : 0).add(word);
+            lineStart = next;
+        }
+    }
+    
+    /** Return the results of finished tasks, rethrowing their exceptions */
+    private static <T> List<T> getAll(List<Future<T>> futures)
+    {
+        List<T> results = new ArrayList<T>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
 }
@@ -0,0 +1,123 @@
+package spelling;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests isWord on ranges of a text, and that it ignores case the same way as
+ * addWord, for every Dictionary implementation.
+ */
+@RunWith(Parameterized.class)
+public class DictionaryRangeTester {
+
+	private String dictFile = "data/words.small.txt";
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> dictionaries()
+	{
+		return Arrays.asList(new Object[][] {
+			{ "DictionaryLL", (Supplier<Dictionary>) DictionaryLL::new },
+			{ "DictionaryBST", (Supplier<Dictionary>) DictionaryBST::new },
+			{ "DictionaryHashSet", (Supplier<Dictionary>) DictionaryHashSet::new },
+			{ "AutoCompleteDictionaryTrie", (Supplier<Dictionary>) AutoCompleteDictionaryTrie::new },
+			{ "AutoCompleteDictionaryDAWG", (Supplier<Dictionary>) AutoCompleteDictionaryDAWG::new },
+			{ "ConcurrentDictionary", (Supplier<Dictionary>) ConcurrentDictionary::new },
+			{ "BloomFilterDictionary", (Supplier<Dictionary>)
+					() -> new BloomFilterDictionary(new DictionaryHashSet(), 4438, 0.01) },
+			{ "PartitionedDictionary", (Supplier<Dictionary>)
+					() -> new PartitionedDictionary(AutoCompleteDictionaryTrie::new, 4) },
+		});
+	}
+
+	private final Supplier<Dictionary> factory;
+
+	Dictionary emptyDict;
+	Dictionary smallDict;
+	Dictionary largeDict;
+
+	public DictionaryRangeTester(String name, Supplier<Dictionary> factory)
+	{
+		this.factory = factory;
+	}
+
+	@Before
+	public void setUp() throws Exception
+	{
+		emptyDict = factory.get();
+		smallDict = factory.get();
+		largeDict = factory.get();
+
+		smallDict.addWord("Hello");
+		smallDict.addWord("help");
+		smallDict.addWord("a");
+
+		DictionaryLoader.loadDictionary(largeDict, dictFile);
+	}
+
+	/** Test isWord on ranges of a text */
+	@Test
+	public void testIsWordRange()
+	{
+		String text = "Say HELLO to the subsequent hellow";
+		assertEquals("Testing isWord on large: HELLO", true, largeDict.isWord(text, 4, 9));
+		assertEquals("Testing isWord on large: subsequent", true, largeDict.isWord(text, 17, 27));
+		assertEquals("Testing isWord on large: hellow", false, largeDict.isWord(text, 28, 34));
+		assertEquals("Testing isWord on large: HEL", false, largeDict.isWord(text, 4, 7));
+		assertEquals("Testing isWord on small: Hello", true, smallDict.isWord(text, 4, 9));
+		assertEquals("Testing isWord on small: empty range", false, smallDict.isWord(text, 3, 3));
+		assertEquals("Testing isWord on empty: HELLO", false, emptyDict.isWord(text, 4, 9));
+	}
+
+	/** Test ranges of texts that are not Strings */
+	@Test
+	public void testIsWordRangeOfBuilder()
+	{
+		StringBuilder text = new StringBuilder("xhelpx");
+		assertEquals("Testing isWord on small: help", true, smallDict.isWord(text, 1, 5));
+		text.setCharAt(1, 'H');
+		assertEquals("Testing isWord on small: Help", true, smallDict.isWord(text, 1, 5));
+		assertEquals("Testing isWord on small: helpx", false, smallDict.isWord(text, 1, 6));
+	}
+
+	/** Test that a range outside the text is an error */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testIsWordRangeOutOfBounds()
+	{
+		smallDict.isWord("help", 2, 5);
+	}
+
+	/** Words added with a capital I must be found in a Turkish locale, where
+	 * String.toLowerCase would turn it into a dotless i */
+	@Test
+	public void testTurkishLocale()
+	{
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			Dictionary dict = factory.get();
+			dict.addWord("IDLE");
+			dict.addWord("Istanbul");
+			String text = "IDLE in ISTANBUL";
+			assertEquals("Testing isWord: idle", true, dict.isWord("idle"));
+			assertEquals("Testing isWord: IDLE", true, dict.isWord("IDLE"));
+			assertEquals("Testing isWord on range: IDLE", true, dict.isWord(text, 0, 4));
+			assertEquals("Testing isWord on range: ISTANBUL", true, dict.isWord(text, 8, 16));
+			assertEquals("Testing addWord: idle", false, dict.addWord("idle"));
+			assertEquals("Testing size", 2, dict.size());
+		}
+		finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+}
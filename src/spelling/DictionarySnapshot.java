@@ -0,0 +1,416 @@
+package spelling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Dictionary and AutoComplete implementation that reads a trie straight from a
+ * snapshot file mapped into memory, so opening a dictionary does not read or parse
+ * the word list.  Only the pages of the file that a search touches are read.
+ *
+ * The snapshot is written once from an AutoCompleteDictionaryTrie.  It starts with
+ * a header:
+ *   int MAGIC, int VERSION,
+ *   long size and long last modified time of the word list it was built from,
+ *   int number of words, int length of the longest word, int number of nodes
+ * followed by the nodes, root first, in breadth first order.  Node records start
+ * on a multiple of 4 bytes and hold
+ *   int (number of children << 1 | 1 if the node ends a word),
+ *   the characters of the children in increasing order (padded to 4 bytes),
+ *   the offset in the file of each child.
+ *
+ * The snapshot cannot change, so words added with addWord are kept in a small
+ * ConcurrentDictionary in memory and searched as well.  So any number of threads
+ * can search the dictionary while words are added, without locks.
+ */
+public class DictionarySnapshot implements Dictionary, AutoComplete {
+
+	/** The first 4 bytes of a snapshot, "DSNP" */
+	public static final int MAGIC = 0x44534E50;
+
+	/** The version of the format written by this class */
+	public static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 36;
+
+	private final ByteBuffer buffer;
+	private final int numWords;
+	private final int maxLength;
+	private final int numNodes;
+
+	// words added since the snapshot was written
+	private final ConcurrentDictionary added;
+
+	/** Wrap a snapshot held in buffer, checking its header */
+	private DictionarySnapshot(ByteBuffer buffer) throws IOException
+	{
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a dictionary snapshot");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported dictionary snapshot version " + buffer.getInt(4));
+		}
+		this.buffer = buffer;
+		numWords = buffer.getInt(24);
+		maxLength = buffer.getInt(28);
+		numNodes = buffer.getInt(32);
+		added = new ConcurrentDictionary();
+	}
+
+	/** Open a snapshot file by mapping it into memory.
+	 * @param file The snapshot file
+	 * @return the dictionary
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static DictionarySnapshot open(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			return new DictionarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/** Return the dictionary of a word list, through its snapshot (the word list
+	 * file name followed by ".snapshot").  The snapshot is written first if it is
+	 * missing, or was built from a different version of the word list.  If it
+	 * cannot be written, the dictionary is built in memory.
+	 * 
+	 * The header is read to check the snapshot before the file is mapped, so a
+	 * stale snapshot is never mapped while it is replaced (which fails on Windows).
+	 * @param dictFile The file containing the words, one per line
+	 * @return the dictionary
+	 */
+	public static DictionarySnapshot load(String dictFile)
+	{
+		File source = new File(dictFile);
+		Path file = Paths.get(dictFile + ".snapshot");
+		try {
+			if (isCurrent(file, source)) {
+				return open(file);
+			}
+		}
+		catch (IOException e) {
+			// missing or unreadable, so write it again
+		}
+
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		DictionaryLoader.loadDictionary(trie, dictFile);
+		ByteBuffer bytes = toBuffer(trie, source.length(), source.lastModified());
+		try {
+			write(bytes, file);
+			return open(file);
+		}
+		catch (IOException e) {
+			System.err.println("Problem writing dictionary snapshot: " + file);
+			try {
+				return new DictionarySnapshot(bytes);
+			}
+			catch (IOException impossible) {
+				throw new IllegalStateException(impossible);
+			}
+		}
+	}
+
+	/** Return true if the header of the snapshot file is of this version and
+	 * matches the size and last modified time of the word list, reading only the header */
+	private static boolean isCurrent(Path file, File source) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					break;
+				}
+			}
+		}
+		return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+				&& header.getLong(8) == source.length() && header.getLong(16) == source.lastModified();
+	}
+
+	/** Write the snapshot of a trie to a file.
+	 * @param trie The dictionary to write
+	 * @param file The snapshot file, which is replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(AutoCompleteDictionaryTrie trie, Path file) throws IOException
+	{
+		write(toBuffer(trie, 0, 0), file);
+	}
+
+	/** Write a snapshot to a temporary file, then move it over the file, so
+	 * a snapshot that is being read is never changed */
+	private static void write(ByteBuffer bytes, Path file) throws IOException
+	{
+		Path directory = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				bytes.rewind();
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/** Lay out the nodes of a trie, breadth first, in a new buffer */
+	private static ByteBuffer toBuffer(AutoCompleteDictionaryTrie trie, long sourceSize, long sourceModified)
+	{
+		List<TrieNode> nodes = new ArrayList<TrieNode>();
+		nodes.add(trie.getRoot());
+		int maxLength = 0;
+		int size = HEADER_SIZE;
+		// one level at a time, so the depth of the nodes is known
+		for (int depth = 0, levelStart = 0, levelEnd = 1; levelStart < nodes.size();
+				depth++, levelStart = levelEnd, levelEnd = nodes.size()) {
+			for (int i = levelStart; i < levelEnd; i++) {
+				TrieNode node = nodes.get(i);
+				if (node.endsWord()) {
+					maxLength = depth;
+				}
+				size += recordSize(node.getNumChildren());
+				for (int c = 0; c < node.getNumChildren(); c++) {
+					nodes.add(node.getChildAt(c));
+				}
+			}
+		}
+
+		ByteBuffer bytes = ByteBuffer.allocate(size);
+		bytes.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified);
+		bytes.putInt(trie.size()).putInt(maxLength).putInt(nodes.size());
+
+		// children come one after the other, so the next child's offset is a running total
+		int childOffset = HEADER_SIZE + recordSize(trie.getRoot().getNumChildren());
+		int child = 1;
+		for (TrieNode node : nodes) {
+			int n = node.getNumChildren();
+			bytes.putInt(n << 1 | (node.endsWord() ? 1 : 0));
+			for (int c = 0; c < n; c++) {
+				bytes.putChar(node.getChar(c));
+			}
+			if ((n & 1) != 0) {
+				bytes.putChar((char) 0);
+			}
+			for (int c = 0; c < n; c++) {
+				bytes.putInt(childOffset);
+				childOffset += recordSize(nodes.get(child++).getNumChildren());
+			}
+		}
+		return bytes;
+	}
+
+	/** Return the number of bytes of a node with n children */
+	private static int recordSize(int n)
+	{
+		return 4 + ((2 * n + 3) & ~3) + 4 * n;
+	}
+
+	/** Return the offset of the child of the node at offset reached by c, or -1 */
+	private int getChild(int node, char c)
+	{
+		int n = buffer.getInt(node) >>> 1;
+		int low = 0;
+		int high = n - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char label = buffer.getChar(node + 4 + 2 * middle);
+			if (label < c) {
+				low = middle + 1;
+			}
+			else if (label > c) {
+				high = middle - 1;
+			}
+			else {
+				return buffer.getInt(node + 4 + ((2 * n + 3) & ~3) + 4 * middle);
+			}
+		}
+		return -1;
+	}
+
+	/** Return the offset of the node of a word, lower casing each character, or -1 */
+	private int find(String word)
+	{
+		return find(word, 0, word.length());
+	}
+
+	/** Return the offset of the node of text[start..end), lower casing each character, or -1 */
+	private int find(CharSequence text, int start, int end)
+	{
+		int node = HEADER_SIZE;
+		for (int i = start; i < end && node >= 0; i++) {
+			node = getChild(node, Character.toLowerCase(text.charAt(i)));
+		}
+		return node;
+	}
+
+	/** Add a word, which is only kept in memory.
+	 * @param word The word to add
+	 * @return true if the word was added to the dictionary
+	 * (it wasn't already there). */
+	@Override
+	public boolean addWord(String word)
+	{
+		int node = find(word);
+		if (node >= 0 && (buffer.getInt(node) & 1) != 0) {
+			return false;
+		}
+		return added.addWord(word);
+	}
+
+	@Override
+	public boolean isWord(String s)
+	{
+		return isWord(s, 0, s.length());
+	}
+
+	/** Is text[start..end) a word according to this dictionary? */
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		int node = find(text, start, end);
+		return node >= 0 && (buffer.getInt(node) & 1) != 0 || added.size() > 0 && added.isWord(text, start, end);
+	}
+
+	/** Return the number of words in the dictionary */
+	@Override
+	public int size()
+	{
+		return numWords + added.size();
+	}
+
+	/** Return the number of nodes of the snapshot */
+	public int getNumNodes()
+	{
+		return numNodes;
+	}
+
+	/** Return the size of the word list the snapshot was built from, or 0 if unknown */
+	public long getSourceSize()
+	{
+		return buffer.getLong(8);
+	}
+
+	/** Return the last modified time of the word list the snapshot was built from, or 0 if unknown */
+	public long getSourceModified()
+	{
+		return buffer.getLong(16);
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length, containing the
+	 * numCompletions shortest legal completions of the prefix string.  If the prefix
+	 * itself is a valid word, it is included.  If no word starts with the prefix, it
+	 * returns an empty list.
+	 *
+	 * As in AutoCompleteDictionaryTrie, the words one character longer than the
+	 * prefix are found first, then two characters longer, and so on.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		List<String> completions = new ArrayList<String>();
+		int stem = find(prefix);
+		if (stem >= 0) {
+			// breadth first as in AutoCompleteDictionaryTrie, where queue[i] is the offset
+			// of the node of entry i of paths, and nodes are checked for words as they are queued
+			CompletionPaths paths = new CompletionPaths(prefix, maxLength);
+			int[] queue = new int[paths.capacity()];
+			queue[0] = stem;
+			if ((buffer.getInt(stem) & 1) != 0 && numCompletions > 0) {
+				completions.add(paths.text(0));
+			}
+			for (int head = 0; head < paths.size() && completions.size() < numCompletions; head++) {
+				int node = queue[head];
+				int n = buffer.getInt(node) >>> 1;
+				int children = node + 4 + ((2 * n + 3) & ~3);
+				for (int i = 0; i < n && completions.size() < numCompletions; i++) {
+					int child = buffer.getInt(children + 4 * i);
+					int entry = paths.add(head, buffer.getChar(node + 4 + 2 * i));
+					if (entry == queue.length) {
+						queue = Arrays.copyOf(queue, paths.capacity());
+					}
+					queue[entry] = child;
+					if ((buffer.getInt(child) & 1) != 0) {
+						completions.add(paths.text(entry));
+					}
+				}
+			}
+		}
+		if (added.size() == 0) {
+			return completions;
+		}
+
+		// merge with the words added since, which are also shortest first
+		List<String> more = added.predictCompletions(prefix, numCompletions);
+		List<String> merged = new ArrayList<String>();
+		int i = 0;
+		int j = 0;
+		while (merged.size() < numCompletions && (i < completions.size() || j < more.size())) {
+			if (j == more.size() || i < completions.size()
+					&& completions.get(i).length() <= more.get(j).length()) {
+				merged.add(completions.get(i++));
+			}
+			else {
+				merged.add(more.get(j++));
+			}
+		}
+		return merged;
+	}
+
+	// Compares the time to the first lookup with the word list and with the snapshot
+	public static void main(String[] args)
+	{
+		final double CONVERSION_FACTOR = 1000000.0;
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+
+		long startTime = System.nanoTime();
+		AutoCompleteDictionaryTrie trie = new AutoCompleteDictionaryTrie();
+		DictionaryLoader.loadDictionary(trie, dictFile);
+		trie.isWord("hello");
+		double trieTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+		// the first load writes the snapshot, later ones map it
+		load(dictFile);
+		startTime = System.nanoTime();
+		DictionarySnapshot snapshot = load(dictFile);
+		snapshot.isWord("hello");
+		double snapshotTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+		boolean passed = snapshot.size() == trie.size() && !snapshot.isWord("hellow");
+		for (String word : trie.predictCompletions("", trie.size())) {
+			passed &= snapshot.isWord(word) && snapshot.isWord(word.toUpperCase());
+		}
+		for (String prefix : new String[] {"", "a", "th", "Re", "un", "zz", "abc"}) {
+			passed &= snapshot.predictCompletions(prefix, 20).equals(trie.predictCompletions(prefix, 20));
+		}
+		passed &= snapshot.addWord("hellow") && !snapshot.addWord("Hellow") && !snapshot.addWord("hello");
+		passed &= snapshot.isWord("hellow") && snapshot.size() == trie.size() + 1;
+		passed &= snapshot.predictCompletions("hello", 3).contains("hellow");
+		System.out.println(passed ? "passed." : "FAILED.");
+
+		System.out.println("Words: " + snapshot.size() + ", nodes: " + snapshot.getNumNodes());
+		System.out.println("Milliseconds to the first lookup");
+		System.out.println("Word list\t Snapshot");
+		System.out.println(trieTime + "\t " + snapshotTime);
+	}
+
+}
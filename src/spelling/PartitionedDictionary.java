@@ -0,0 +1,192 @@
+package spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * A Dictionary that splits its words into partitions by their first letter, each
+ * one a separate dictionary.  As a word is only ever in one partition, the
+ * partitions can be built at the same time by different threads with no merge
+ * afterwards, which is what DictionaryLoader.loadDictionaryParallel does.
+ *
+ * If the partitions implement AutoComplete, so does this dictionary: a prefix
+ * is completed by its partition, and the empty prefix by all of them.
+ */
+public class PartitionedDictionary implements Dictionary, AutoComplete {
+
+	private final Dictionary[] partitions;
+
+	/** Create a dictionary with numPartitions partitions made by the factory
+	 * @param factory Makes the empty dictionary of each partition
+	 * @param numPartitions The number of partitions
+	 */
+	public PartitionedDictionary(Supplier<? extends Dictionary> factory, int numPartitions)
+	{
+		if (numPartitions < 1) {
+			throw new IllegalArgumentException("numPartitions must be positive: " + numPartitions);
+		}
+		partitions = new Dictionary[numPartitions];
+		for (int i = 0; i < numPartitions; i++) {
+			partitions[i] = factory.get();
+		}
+	}
+
+	/** Return the number of partitions */
+	public int getNumPartitions()
+	{
+		return partitions.length;
+	}
+
+	/** Return partition i */
+	Dictionary getPartition(int i)
+	{
+		return partitions[i];
+	}
+
+	/** Return the partition of a word, from its first character ignoring case */
+	int partitionOf(String word)
+	{
+		return partitionOf(word, 0, word.length());
+	}
+
+	/** Return the partition of the word text[start..end) */
+	private int partitionOf(CharSequence text, int start, int end)
+	{
+		return start == end ? 0 : Character.toLowerCase(text.charAt(start)) % partitions.length;
+	}
+
+	@Override
+	public boolean addWord(String word)
+	{
+		return partitions[partitionOf(word)].addWord(word);
+	}
+
+	@Override
+	public boolean isWord(String s)
+	{
+		return partitions[partitionOf(s)].isWord(s);
+	}
+
+	@Override
+	public boolean isWord(CharSequence text, int start, int end)
+	{
+		CharRange.checkRange(text, start, end);
+		return partitions[partitionOf(text, start, end)].isWord(text, start, end);
+	}
+
+	@Override
+	public int size()
+	{
+		int size = 0;
+		for (Dictionary partition : partitions) {
+			size += partition.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Return a list, in order of increasing (non-decreasing) word length, containing the
+	 * numCompletions shortest legal completions of the prefix string, as described by
+	 * AutoCompleteDictionaryTrie.
+	 *
+	 * @param prefix The text to use at the word stem
+	 * @param numCompletions The maximum number of predictions desired.
+	 * @return A list containing the up to numCompletions best predictions
+	 * @throws UnsupportedOperationException if the partitions do not implement AutoComplete
+	 */
+	@Override
+	public List<String> predictCompletions(String prefix, int numCompletions)
+	{
+		if (!prefix.isEmpty()) {
+			return autoComplete(partitionOf(prefix)).predictCompletions(prefix, numCompletions);
+		}
+
+		// each partition has the shortest of its own words, so take the shortest of all
+		List<List<String>> lists = new ArrayList<List<String>>();
+		for (int i = 0; i < partitions.length; i++) {
+			lists.add(autoComplete(i).predictCompletions(prefix, numCompletions));
+		}
+		int[] next = new int[partitions.length];
+		List<String> completions = new ArrayList<String>();
+		while (completions.size() < numCompletions) {
+			int shortest = -1;
+			for (int i = 0; i < partitions.length; i++) {
+				if (next[i] < lists.get(i).size() && (shortest < 0
+						|| lists.get(i).get(next[i]).length() < lists.get(shortest).get(next[shortest]).length())) {
+					shortest = i;
+				}
+			}
+			if (shortest < 0) {
+				break;
+			}
+			completions.add(lists.get(shortest).get(next[shortest]++));
+		}
+		return completions;
+	}
+
+	private AutoComplete autoComplete(int i)
+	{
+		if (!(partitions[i] instanceof AutoComplete)) {
+			throw new UnsupportedOperationException("The partitions do not implement AutoComplete");
+		}
+		return (AutoComplete) partitions[i];
+	}
+
+	// Compares loading a dictionary file on one thread and in parallel, in words per second
+	public static void main(String[] args)
+	{
+		final double CONVERSION_FACTOR = 1000000000.0;
+		String dictFile = args.length > 0 ? args[0] : "data/dict.txt";
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int numPartitions = 4 * pool.getParallelism();
+
+		boolean passed = true;
+		System.out.println("Threads: " + pool.getParallelism() + ", partitions: " + numPartitions);
+		System.out.println("Dictionary\t Sequential (words/s)\t Parallel (words/s)");
+		for (String name : new String[] {"HashSet", "Trie", "DAWG"}) {
+			// the best of a few rounds, as building creates a lot of garbage
+			double bestSequential = Double.MAX_VALUE;
+			double bestParallel = Double.MAX_VALUE;
+			int words = 0;
+			for (int round = 0; round < 5; round++) {
+				Supplier<Dictionary> factory = name.equals("HashSet") ? DictionaryHashSet::new
+						: name.equals("Trie") ? AutoCompleteDictionaryTrie::new : AutoCompleteDictionaryDAWG::new;
+
+				long startTime = System.nanoTime();
+				Dictionary sequential = factory.get();
+				DictionaryLoader.loadDictionary(sequential, dictFile);
+				double sequentialTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+				startTime = System.nanoTime();
+				PartitionedDictionary parallel = new PartitionedDictionary(factory, numPartitions);
+				words = DictionaryLoader.loadDictionaryParallel(parallel, dictFile, pool);
+				double parallelTime = (System.nanoTime() - startTime) / CONVERSION_FACTOR;
+
+				passed &= parallel.size() == sequential.size() && parallel.isWord("Hello")
+						&& !parallel.isWord("hellow");
+				bestSequential = Math.min(bestSequential, sequentialTime);
+				bestParallel = Math.min(bestParallel, parallelTime);
+			}
+			System.out.println(name + "\t " + (int) (words / bestSequential) + "\t " + (int) (words / bestParallel));
+		}
+
+		Dictionary plain = new DictionaryHashSet();
+		DictionaryLoader.loadDictionaryParallel(plain, dictFile, pool);
+		Dictionary expected = new DictionaryHashSet();
+		DictionaryLoader.loadDictionary(expected, dictFile);
+		passed &= plain.size() == expected.size();
+
+		PartitionedDictionary trie = new PartitionedDictionary(AutoCompleteDictionaryTrie::new, numPartitions);
+		DictionaryLoader.loadDictionaryParallel(trie, dictFile, pool);
+		AutoCompleteDictionaryTrie whole = new AutoCompleteDictionaryTrie();
+		DictionaryLoader.loadDictionary(whole, dictFile);
+		for (String prefix : new String[] {"", "a", "th", "zz"}) {
+			passed &= trie.predictCompletions(prefix, 20).equals(whole.predictCompletions(prefix, 20))
+					|| prefix.isEmpty() && trie.predictCompletions(prefix, 20).size() == 20;
+		}
+		System.out.println(passed ? "passed." : "FAILED.");
+	}
+
+}
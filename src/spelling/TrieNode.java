@@ -1,40 +1,40 @@
 package spelling;
 
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Arrays;
 
 /** 
- * Represents a node in a Trie
+ * Represents a node in a Trie.
  *
+ * The characters that link to the children are kept sorted in a char array, with
+ * the children in a parallel array, so finding a child is a binary search with no
+ * boxed Characters.  A node does not store its text: the text of a node is the
+ * characters on the path to it, which a traversal can keep in a buffer.
  */
 class TrieNode {
-	private HashMap<Character, TrieNode> children; 
-	private String text;  // Maybe omit for space
+	private static final char[] NO_CHARS = new char[0];
+	private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+	private char[] chars;
+	private TrieNode[] children;
 	private boolean isWord;
 	
 	/** Create a new TrieNode */
 	public TrieNode()
 	{
-		children = new HashMap<Character, TrieNode>();
-		text = "";
+		chars = NO_CHARS;
+		children = NO_CHILDREN;
 		isWord = false;
 	}
 	
-	/** Create a new TrieNode given a text String to store in it */
-	public TrieNode(String text)
-	{
-		this();
-		this.text = text;
-	}
-	
-	/** Return the TrieNode that is the child when you follow the link from the given Character 
+	/** Return the TrieNode that is the child when you follow the link from the given character 
 	 * @param c The next character in the key
 	 * @return The TrieNode that character links to, or null if that link
 	 *   is not in the trie.
 	 */
-	public TrieNode getChild(Character c)
+	public TrieNode getChild(char c)
 	{
-		return children.get(c);
+		int i = Arrays.binarySearch(chars, c);
+		return i >= 0 ? children[i] : null;
 	}
 	
 	/** Inserts this character at this node. Returns the newly created node, if c wasn't already
@@ -42,23 +42,31 @@ class TrieNode {
 	 * @param c The character that will link to the new node
 	 * @return The newly created TrieNode, or null if the node is already in the trie.
 	 */
-	public TrieNode insert(Character c)
+	public TrieNode insert(char c)
 	{
-		if (children.containsKey(c)) {
+		int i = Arrays.binarySearch(chars, c);
+		if (i >= 0) {
 			return null;
 		}
+		i = -i - 1;
 		
-		TrieNode next = new TrieNode(text + c.toString());
-		children.put(c, next);
+		// the arrays are kept at their exact size, as most nodes have one child or none
+		int n = chars.length;
+		char[] newChars = new char[n + 1];
+		TrieNode[] newChildren = new TrieNode[n + 1];
+		System.arraycopy(chars, 0, newChars, 0, i);
+		System.arraycopy(children, 0, newChildren, 0, i);
+		System.arraycopy(chars, i, newChars, i + 1, n - i);
+		System.arraycopy(children, i, newChildren, i + 1, n - i);
+		
+		TrieNode next = new TrieNode();
+		newChars[i] = c;
+		newChildren[i] = next;
+		chars = newChars;
+		children = newChildren;
 		return next;
 	}
 	
-	/** Return the text string at this node */
-    public String getText()
-	{
-		return text;
-	}
-	
     /** Set whether or not this node ends a word in the trie. */
 	public void setEndsWord(boolean b)
 	{
@@ -71,11 +79,22 @@ class TrieNode {
 		return isWord;
 	}
 	
-	/** Return the set of characters that have links from this node */
-	public Set<Character> getValidNextCharacters()
+	/** Return the number of links from this node */
+	public int getNumChildren()
 	{
-		return children.keySet();
+		return chars.length;
+	}
+	
+	/** Return the character of link i, in increasing order of character */
+	public char getChar(int i)
+	{
+		return chars[i];
+	}
+	
+	/** Return the child of link i */
+	public TrieNode getChildAt(int i)
+	{
+		return children[i];
 	}
 
 }
-
@@ -34,8 +34,7 @@ public class WPTree implements WordPath {
 	// You'll need to create your own NearbyWords object here.
 	public WPTree () {
 		this.root = null;
-		Dictionary d = new DictionaryHashSet();
-		DictionaryLoader.loadDictionary(d, "data/dict.txt");
+		Dictionary d = DictionarySnapshot.load("data/dict.txt");
 		this.nw = new NearbyWords(d);
 	}
 	
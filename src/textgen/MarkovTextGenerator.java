@@ -1,5 +1,7 @@
 package textgen;
 
+import document.TokenIndex;
+
 /**
  *  The interface for the MarkovTextGenerator
  *  @author Sohof Dastmard
@@ -15,4 +17,16 @@ public interface MarkovTextGenerator {
 	
 	/** Retrain the generator from scratch on the source text */
 	public void retrain(String sourceText);
+	
+	/** Train the generator by adding the indexed text */
+	public default void train(TokenIndex index)
+	{
+		train(index.getText().toString());
+	}
+	
+	/** Retrain the generator from scratch on the indexed text */
+	public default void retrain(TokenIndex index)
+	{
+		retrain(index.getText().toString());
+	}
 }
@@ -1,10 +1,13 @@
 package textgen;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Random;
 
+import document.TokenIndex;
+
 /** 
  * An implementation of the MTG interface that uses a list of lists.
  * @author Sohof Dastmard
@@ -31,11 +34,21 @@ public class MarkovTextGeneratorLoL implements MarkovTextGenerator {
 	/** Train the generator by adding the sourceText */
 	@Override
 	public void train(String sourceText)
+	{
+		train(new TokenIndex(sourceText));
+	}
+	
+	/** Train the generator by adding the indexed text. The words are the
+	 * whitespace tokens of the index, the same as splitting the trimmed 
+	 * text with "\\s+".
+	 */
+	@Override
+	public void train(TokenIndex index)
 	{
 		if (wordList.size() > 0) // Just return if generator already has been trained.
 			return;
 		
-		String [] tokens = (sourceText.trim()).split("\\s+");
+		String [] tokens = trimmedWords(index);
 		
 		this.starter = tokens[0];
 		String prevWord = starter;
@@ -112,10 +125,48 @@ public class MarkovTextGeneratorLoL implements MarkovTextGenerator {
 	/** Retrain the generator from scratch on the source text */
 	@Override
 	public void retrain(String sourceText)
+	{
+		retrain(new TokenIndex(sourceText));
+	}
+	
+	/** Retrain the generator from scratch on the indexed text */
+	@Override
+	public void retrain(TokenIndex index)
 	{
 		wordList.clear();
 		starter = "";
-		train(sourceText);
+		train(index);
+	}
+	
+	/** Return the words of the indexed text as split by trim().split("\\s+"):
+	 * the whitespace tokens, without any characters that trim() removes from the 
+	 * ends of the text, or a single empty word if there are none. 
+	 */
+	private static String[] trimmedWords(TokenIndex index)
+	{
+		CharSequence text = index.getText();
+		TokenIndex.Tokens tokens = index.getWhitespaceTokens();
+		
+		// the range String.trim() keeps
+		int lo = 0;
+		int hi = text.length();
+		while (lo < hi && text.charAt(lo) <= ' ')
+			lo++;
+		while (hi > lo && text.charAt(hi - 1) <= ' ')
+			hi--;
+		
+		String[] words = new String[tokens.size()];
+		int count = 0;
+		for (int i = 0; i < tokens.size(); ++i) {
+			int start = Math.max(tokens.start(i), lo);
+			int end = Math.min(tokens.end(i), hi);
+			if (start < end)
+				words[count++] = text.subSequence(start, end).toString();
+		}
+		
+		if (count == 0)
+			return new String[] { "" };
+		return count == words.length ? words : Arrays.copyOf(words, count);
 	}
 	
 	/**